@@ -34,6 +34,7 @@ public class Config {
     public static final String VAL_WORK_AREA_CLASSES = File.separator + VAL_WORK_AREA_TMP + File.separator + "compile"
             + File.separator + "classes";
     public static final String VAL_WORK_AREA_CONF = File.separator + "conf";
+    public static final String VAL_WORK_AREA_CACHE = "cache";
     public static final String VAL_CONF_FILE_ZIP = "configuration.zip";
     public static final String VAL_CONFIG_PROP_FILE_NAME = "config.properties";
 
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Recording is lock free so that it can be used on every remote call. Readers see a value that may miss the records made
+// while reading, which is sufficient for reporting.
+public class LatencyHistogram {
+
+    // Values are grouped in buckets of powers of 2, each split in 32 linear sub buckets (i.e. ~3% precision).
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_VALUE_BITS = 40;
+    public static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    private static final int BUCKET_COUNT = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong minimum = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maximum = new AtomicLong();
+
+    static int getBucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT)
+            return (int) value;
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) ((value >>> (highestBit - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1));
+        return (highestBit - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long getBucketLowerBound(int bucketIndex) {
+        if (bucketIndex < SUB_BUCKET_COUNT)
+            return bucketIndex;
+        int bucket = bucketIndex / SUB_BUCKET_COUNT;
+        int subBucket = bucketIndex % SUB_BUCKET_COUNT;
+        return ((long) (SUB_BUCKET_COUNT + subBucket)) << (bucket - 1);
+    }
+
+    static long getBucketUpperBound(int bucketIndex) {
+        if (bucketIndex < SUB_BUCKET_COUNT)
+            return bucketIndex;
+        return getBucketLowerBound(bucketIndex) + (1L << (bucketIndex / SUB_BUCKET_COUNT - 1)) - 1;
+    }
+
+    private static void updateMinimum(AtomicLong minimum, long value) {
+        long currentMinimum;
+        while (value < (currentMinimum = minimum.get()) && !minimum.compareAndSet(currentMinimum, value)) {
+        }
+    }
+
+    private static void updateMaximum(AtomicLong maximum, long value) {
+        long currentMaximum;
+        while (value > (currentMaximum = maximum.get()) && !maximum.compareAndSet(currentMaximum, value)) {
+        }
+    }
+
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    public void record(long value, long count) {
+        if (count <= 0)
+            return;
+        long applicableValue = value < 0 ? 0 : (value > MAX_VALUE ? MAX_VALUE : value);
+        counts.addAndGet(getBucketIndex(applicableValue), count);
+        totalCount.addAndGet(count);
+        updateMinimum(minimum, applicableValue);
+        updateMaximum(maximum, applicableValue);
+    }
+
+    public void merge(LatencyHistogram histogram) {
+        if (histogram == null || histogram == this)
+            return;
+        for (int bucketIndex = 0; bucketIndex < BUCKET_COUNT; bucketIndex++) {
+            long count = histogram.counts.get(bucketIndex);
+            if (count > 0) {
+                counts.addAndGet(bucketIndex, count);
+                totalCount.addAndGet(count);
+            }
+        }
+        updateMinimum(minimum, histogram.minimum.get());
+        updateMaximum(maximum, histogram.maximum.get());
+    }
+
+    public LatencyHistogram copy() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.merge(this);
+        return histogram;
+    }
+
+    public void clear() {
+        for (int bucketIndex = 0; bucketIndex < BUCKET_COUNT; bucketIndex++) {
+            counts.set(bucketIndex, 0);
+        }
+        totalCount.set(0);
+        minimum.set(Long.MAX_VALUE);
+        maximum.set(0);
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public long getMinimum() {
+        return totalCount.get() == 0 ? 0 : minimum.get();
+    }
+
+    public long getMaximum() {
+        return maximum.get();
+    }
+
+    public long getPercentile(double percentile) {
+        // Total is computed from the buckets since it may be updated after the buckets by concurrent recording. Buckets only
+        // grow during the search, so the cumulative count always reaches the target.
+        long bucketTotal = 0;
+        for (int bucketIndex = 0; bucketIndex < BUCKET_COUNT; bucketIndex++) {
+            bucketTotal += counts.get(bucketIndex);
+        }
+        if (bucketTotal == 0)
+            return 0;
+        double applicablePercentile = Math.min(Math.max(percentile, 0), 100);
+        long countAtPercentile = Math.max(1, (long) Math.ceil(applicablePercentile * bucketTotal / 100));
+        long cumulativeCount = 0;
+        long currentMaximum = maximum.get();
+        for (int bucketIndex = 0; bucketIndex < BUCKET_COUNT; bucketIndex++) {
+            cumulativeCount += counts.get(bucketIndex);
+            if (cumulativeCount >= countAtPercentile) {
+                long bucketValue = (getBucketLowerBound(bucketIndex) + getBucketUpperBound(bucketIndex)) / 2;
+                return Math.min(Math.max(bucketValue, minimum.get()), currentMaximum);
+            }
+        }
+        return currentMaximum;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram [count=" + getTotalCount() + ", p50=" + getPercentile(50) + ", p95=" + getPercentile(95)
+                + ", p99=" + getPercentile(99) + "]";
+    }
+}
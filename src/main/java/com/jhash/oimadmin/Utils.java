@@ -25,8 +25,8 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.security.InvalidParameterException;
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
@@ -38,6 +38,13 @@ public class Utils {
     public final static ThreadFactory threadFactory = Executors.defaultThreadFactory();
     public static final String LINE_SEPARATOR = System.getProperty("line.separator");
     private static final Logger logger = LoggerFactory.getLogger(Utils.class);
+    private static final Object NO_METHOD = new Object();
+    private static final ClassValue<ConcurrentMap<Object, Object>> methodCache = new ClassValue<ConcurrentMap<Object, Object>>() {
+        @Override
+        protected ConcurrentMap<Object, Object> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
 
     public static String processString(String content, String[][] replacements) {
         if (replacements != null && replacements.length > 0) {
@@ -304,6 +311,32 @@ public class Utils {
         logger.debug("Completed setup of execution of {} in separate thread", operationName);
     }
 
+    public static ThreadFactory createThreadFactory(final String poolName) {
+        final AtomicInteger threadCounter = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread poolThread = threadFactory.newThread(runnable);
+                poolThread.setDaemon(true);
+                poolThread.setName(poolName + "-" + threadCounter.incrementAndGet());
+                return poolThread;
+            }
+        };
+    }
+
+    public static ExecutorService createExecutorService(final String poolName, int maxThreads) {
+        logger.debug("Creating executor {} with maximum {} threads", poolName, maxThreads);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), createThreadFactory(poolName));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public static ScheduledExecutorService createScheduledExecutorService(final String poolName) {
+        logger.debug("Creating scheduled executor {}", poolName);
+        return Executors.newSingleThreadScheduledExecutor(createThreadFactory(poolName));
+    }
+
     public static boolean isEmpty(String value) {
         return value == null || value.isEmpty();
     }
@@ -381,15 +414,35 @@ public class Utils {
         return invoke(object, methodName, null);
     }
 
+    // Lookups are cached per class (including missing methods) since getters of OIM objects are invoked for every value
+    // displayed. ClassValue keeps the cache with the class so that it does not hold on to OIM client class loaders.
     public static Method getMethod(Class<?> processClass, String methodName, Class... parameterTypes) {
         if (processClass == null || Utils.isEmpty(methodName))
             return null;
+        Object methodKey = methodName;
+        if (parameterTypes != null && parameterTypes.length > 0) {
+            List<Object> methodSignature = new ArrayList<Object>(Arrays.asList(parameterTypes));
+            methodSignature.add(0, methodName);
+            methodKey = methodSignature;
+        }
+        ConcurrentMap<Object, Object> classMethods = methodCache.get(processClass);
+        Object method = classMethods.get(methodKey);
+        if (method == null) {
+            method = locateMethod(processClass, methodName, parameterTypes);
+            if (method == null)
+                method = NO_METHOD;
+            classMethods.putIfAbsent(methodKey, method);
+        }
+        return method == NO_METHOD ? null : (Method) method;
+    }
+
+    private static Method locateMethod(Class<?> processClass, String methodName, Class... parameterTypes) {
         try {
             return processClass.getDeclaredMethod(methodName, parameterTypes);
         } catch (NoSuchMethodException exception) {
 
         }
-        Class applicableClass = processClass;
+        Class applicableClass = processClass.getSuperclass();
         while (applicableClass != null) {
             try {
                 Method method = applicableClass.getDeclaredMethod(methodName, parameterTypes);
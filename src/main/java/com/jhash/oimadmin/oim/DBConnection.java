@@ -22,11 +22,12 @@ import com.jhash.oimadmin.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 public class DBConnection extends AbstractConnection {
 
@@ -35,8 +36,19 @@ public class DBConnection extends AbstractConnection {
     public static final String ATTR_DB_USER = "db_user";
     public static final String ATTR_DB_PWD = "db_pwd";
     public static final String ATTR_DB_AUTOCOMMIT = "db_auto_commit";
+    public static final String ATTR_DB_FETCH_SIZE = "db_fetch_size";
+    public static final int DEFAULT_DB_FETCH_SIZE = 500;
+    public static final String ATTR_DB_POOL_SIZE = "db_pool_size";
+    public static final String ATTR_DB_POOL_VALIDATION_INTERVAL = "db_pool_validation_interval";
+    public static final String ATTR_DB_POOL_WAIT = "db_pool_wait";
+    public static final String ATTR_DB_STATEMENT_CACHE_SIZE = "db_statement_cache_size";
+    public static final int DEFAULT_DB_POOL_SIZE = 4;
+    public static final long DEFAULT_DB_POOL_VALIDATION_INTERVAL = 10000L;
+    public static final long DEFAULT_DB_POOL_WAIT = 30000L;
+    public static final int DEFAULT_DB_STATEMENT_CACHE_SIZE = 32;
     private static final Logger logger = LoggerFactory.getLogger(DBConnection.class);
-    private Connection dbConnection;
+    private DBConnectionPool connectionPool;
+    private int fetchSize = DEFAULT_DB_FETCH_SIZE;
 
     public DBConnection() {
         STRING_REPRESENTATION = "DatabaseConnection:";
@@ -62,20 +74,36 @@ public class DBConnection extends AbstractConnection {
             throw new NullPointerException("Could not locate attribute " + ATTR_DB_USER + " in configuration for database connection " + this);
         if (Utils.isEmpty(configuration.getProperty(ATTR_DB_PWD)))
             throw new NullPointerException("Could not locate attribute " + ATTR_DB_PWD + " in configuration for database connection " + this);
+        final String url = configuration.getProperty(ATTR_DB_URL);
+        final String user = configuration.getProperty(ATTR_DB_USER);
+        final String password = configuration.getProperty(ATTR_DB_PWD);
+        final String autoCommitValue = configuration.getProperty(ATTR_DB_AUTOCOMMIT);
+        connectionPool = new DBConnectionPool(this, new Callable<Connection>() {
+            @Override
+            public Connection call() throws Exception {
+                Connection dbConnection = DriverManager.getConnection(url, user, password);
+                if (!Utils.isEmpty(autoCommitValue)) {
+                    try {
+                        dbConnection.setAutoCommit(Boolean.getBoolean(autoCommitValue));
+                    } catch (Exception exception) {
+                        logger.warn("Failed to set autocommit to " + autoCommitValue, exception);
+                    }
+                }
+                return dbConnection;
+            }
+        }, Integer.parseInt(configuration.getProperty(ATTR_DB_POOL_SIZE, "" + DEFAULT_DB_POOL_SIZE)),
+                Integer.parseInt(configuration.getProperty(ATTR_DB_STATEMENT_CACHE_SIZE, "" + DEFAULT_DB_STATEMENT_CACHE_SIZE)),
+                Long.parseLong(configuration.getProperty(ATTR_DB_POOL_VALIDATION_INTERVAL, "" + DEFAULT_DB_POOL_VALIDATION_INTERVAL)),
+                Long.parseLong(configuration.getProperty(ATTR_DB_POOL_WAIT, "" + DEFAULT_DB_POOL_WAIT)));
         try {
-            dbConnection = DriverManager.getConnection(configuration.getProperty(ATTR_DB_URL), configuration.getProperty(ATTR_DB_USER), configuration.getProperty(ATTR_DB_PWD));
-            STRING_REPRESENTATION += "{" + configuration.getProperty(ATTR_DB_URL) + "}";
+            // Establish the first connection right away so that invalid connection details are reported during initialization.
+            connectionPool.borrow().release(false);
+            STRING_REPRESENTATION += "{" + url + "}";
         } catch (Exception exception) {
+            connectionPool.close();
             throw new OIMAdminException("Failed to connect to database " + this, exception);
         }
-        String autoCommitValue;
-        if (!Utils.isEmpty(autoCommitValue = configuration.getProperty(ATTR_DB_AUTOCOMMIT))) {
-            try {
-                dbConnection.setAutoCommit(Boolean.getBoolean(autoCommitValue));
-            } catch (Exception exception) {
-                logger.warn("Failed to set autocommit to " + autoCommitValue, exception);
-            }
-        }
+        fetchSize = Integer.parseInt(configuration.getProperty(ATTR_DB_FETCH_SIZE, "" + DEFAULT_DB_FETCH_SIZE));
         logger.debug("Initialized Database.");
     }
 
@@ -97,47 +125,38 @@ public class DBConnection extends AbstractConnection {
 
     public Details invokeSQL(boolean suppressException, boolean operation, String sqlID, Object... parameterValues) {
         logger.trace("Trying to invoke SQL {} with parameters {}", sqlID, parameterValues);
-        try (PreparedStatement preparedStatement = operation ? dbConnection.prepareStatement(sqlID, PreparedStatement.RETURN_GENERATED_KEYS) : dbConnection.prepareStatement(sqlID)) {
-            ParameterMetaData parameterMetaData = preparedStatement.getParameterMetaData();
-            if (parameterValues != null && parameterMetaData.getParameterCount() != parameterValues.length) {
-                logger.warn("The number of values {} do not match number of parameters {} of SQL Statement {}", new Object[]{parameterValues.length, parameterMetaData.getParameterCount(), sqlID});
-            }
-            int parameterIndexCounter = 1;
-            for (Object parameterValue : parameterValues) {
-                preparedStatement.setObject(parameterIndexCounter, parameterValue);
-                parameterIndexCounter++;
-            }
+        DBConnectionPool.PooledConnection pooledConnection = null;
+        boolean failed = true;
+        try {
+            pooledConnection = connectionPool.borrow();
+            PreparedStatement preparedStatement = prepareStatement(pooledConnection, operation, sqlID, parameterValues);
             try {
                 if (operation) {
                     int affectedRows = preparedStatement.executeUpdate();
                     logger.debug("Affected rows of executed prepared statement is {}", affectedRows);
                     //TODO: handle generated keys preparedStatement.getGeneratedKeys();
-                    dbConnection.commit();
+                    pooledConnection.getConnection().commit();
                 } else {
-                    ResultSet result = preparedStatement.executeQuery();
-                    ResultSetMetaData resultSetMetaData = preparedStatement.getMetaData();
-                    int totalColumnsInResult = resultSetMetaData.getColumnCount();
-                    List<String> columnNames = new ArrayList<>();
-                    for (int columnCounter = 1; columnCounter <= totalColumnsInResult; columnCounter++) {
-                        columnNames.add(resultSetMetaData.getColumnName(columnCounter));
-                    }
-                    List<Map<String, Object>> resultData = new ArrayList<>();
-                    while (result.next()) {
-                        Map<String, Object> record = new HashMap<>();
-                        for (int columnCounter = 1; columnCounter <= totalColumnsInResult; columnCounter++) {
-                            String columnName = resultSetMetaData.getColumnLabel(columnCounter);
-                            Object columnValue = result.getObject(columnCounter);
-                            if (columnValue instanceof Blob) {
-                                byte[] blobBytes = ((Blob)columnValue).getBytes(1L, (int)((Blob)columnValue).length());
-                                record.put(columnName, blobBytes);
-                            } else {
-                                record.put(columnName, columnValue);
+                    try (DBCursor cursor = new DBCursor(sqlID, preparedStatement, null)) {
+                        List<Object[]> resultData = new ArrayList<>();
+                        while (cursor.hasNext()) {
+                            Object[] record = cursor.nextValues();
+                            for (int columnCounter = 0; columnCounter < record.length; columnCounter++) {
+                                if (record[columnCounter] instanceof Blob) {
+                                    Blob blob = (Blob) record[columnCounter];
+                                    record[columnCounter] = blob.getBytes(1L, (int) blob.length());
+                                } else if (record[columnCounter] instanceof Clob) {
+                                    Clob clob = (Clob) record[columnCounter];
+                                    record[columnCounter] = clob.getSubString(1L, (int) clob.length());
+                                }
                             }
+                            resultData.add(record);
                         }
-                        resultData.add(record);
+                        failed = false;
+                        return new Details(cursor.getColumns(), resultData);
                     }
-                    return new Details(resultData, columnNames.toArray(new String[0]));
                 }
+                failed = false;
             } catch (Exception exception) {
                 if (suppressException)
                     logger.warn("Failed to read result for SQL " + sqlID, exception);
@@ -149,25 +168,93 @@ public class DBConnection extends AbstractConnection {
                 logger.warn("Failed to execute SQL " + sqlID + " with parameter " + parameterValues, exception);
             else
                 throw new OIMAdminException("Failed to execute SQL " + sqlID + " with parameter " + parameterValues, exception);
+        } finally {
+            if (pooledConnection != null)
+                pooledConnection.release(failed);
         }
         return null;
     }
 
+    // The returned cursor holds a pooled connection and must be closed by the caller; it is closed automatically once all
+    // the records have been read.
+    public DBCursor openCursor(String sqlID, Object... parameterValues) {
+        logger.trace("Trying to open cursor for SQL {} with parameters {}", sqlID, parameterValues);
+        DBConnectionPool.PooledConnection pooledConnection = connectionPool.borrow();
+        PreparedStatement preparedStatement;
+        try {
+            preparedStatement = prepareStatement(pooledConnection, false, sqlID, parameterValues);
+        } catch (Exception exception) {
+            pooledConnection.release(true);
+            throw new OIMAdminException("Failed to prepare SQL " + sqlID + " with parameter " + parameterValues, exception);
+        }
+        return new DBCursor(sqlID, preparedStatement, pooledConnection);
+    }
+
+    public long streamSQL(String sqlID, ProcessRecord processRecord, Object... parameterValues) {
+        if (processRecord == null)
+            throw new NullPointerException("No record processor provided for SQL " + sqlID);
+        try (DBCursor cursor = openCursor(sqlID, parameterValues)) {
+            while (cursor.hasNext()) {
+                processRecord.execute(cursor.next());
+            }
+            logger.trace("Processed {} records of SQL {}", cursor.getRowCount(), sqlID);
+            return cursor.getRowCount();
+        }
+    }
+
+    private PreparedStatement prepareStatement(DBConnectionPool.PooledConnection pooledConnection, boolean operation, String sqlID,
+                                               Object... parameterValues) throws SQLException {
+        DBConnectionPool.CachedStatement cachedStatement = pooledConnection.prepareStatement(sqlID, operation);
+        PreparedStatement preparedStatement = cachedStatement.statement;
+        int parameterCount = cachedStatement.getParameterCount();
+        if (parameterValues != null && parameterCount != parameterValues.length) {
+            logger.warn("The number of values {} do not match number of parameters {} of SQL Statement {}", new Object[]{parameterValues.length, parameterCount, sqlID});
+        }
+        int parameterIndexCounter = 1;
+        for (Object parameterValue : parameterValues) {
+            if (parameterValue instanceof BinaryStream) {
+                BinaryStream binaryStream = (BinaryStream) parameterValue;
+                preparedStatement.setBinaryStream(parameterIndexCounter, binaryStream.inputStream, binaryStream.length);
+            } else {
+                preparedStatement.setObject(parameterIndexCounter, parameterValue);
+            }
+            parameterIndexCounter++;
+        }
+        if (!operation && fetchSize > 0)
+            preparedStatement.setFetchSize(fetchSize);
+        return preparedStatement;
+    }
+
     @Override
     protected void destroyConnection() {
         logger.debug("Trying to destroy connection {}", this);
-        if (dbConnection != null) {
-            try {
-                dbConnection.commit();
-            } catch (Exception exception) {
-                logger.warn("Failed to commit transaction in database " + this + ". Ignoring the same.", exception);
-            }
-            try {
-                dbConnection.close();
-            } catch (Exception exception) {
-                logger.warn("Failed to close the connection " + dbConnection + " to database " + this + ". Ignoring the same", exception);
-            }
+        if (connectionPool != null) {
+            connectionPool.close();
+            connectionPool = null;
         }
         logger.debug("Destroyed connection {}", this);
     }
+
+    public interface ProcessRecord {
+
+        void execute(Map<String, Object> record);
+    }
+
+    // Parameter value that is streamed to the database instead of being passed as byte[].
+    public static class BinaryStream {
+        private final InputStream inputStream;
+        private final long length;
+
+        public BinaryStream(InputStream inputStream, long length) {
+            if (inputStream == null)
+                throw new NullPointerException("No input stream provided for binary parameter");
+            this.inputStream = inputStream;
+            this.length = length;
+        }
+
+        @Override
+        public String toString() {
+            return "BinaryStream [length=" + length + "]";
+        }
+    }
 }
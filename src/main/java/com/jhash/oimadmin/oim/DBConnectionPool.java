@@ -0,0 +1,238 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.oim;
+
+import com.jhash.oimadmin.OIMAdminException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class DBConnectionPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(DBConnectionPool.class);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+    private final BlockingQueue<PooledConnection> idleConnections = new LinkedBlockingQueue<>();
+    private final Set<PooledConnection> connections = Collections.newSetFromMap(new ConcurrentHashMap<PooledConnection, Boolean>());
+    private final AtomicInteger connectionCounter = new AtomicInteger();
+    private final DBConnection dbConnection;
+    private final Callable<Connection> connectionFactory;
+    private final int poolSize;
+    private final int statementCacheSize;
+    private final long validationInterval;
+    private final long borrowTimeout;
+    private volatile boolean closed = false;
+
+    DBConnectionPool(DBConnection dbConnection, Callable<Connection> connectionFactory, int poolSize, int statementCacheSize,
+                     long validationInterval, long borrowTimeout) {
+        this.dbConnection = dbConnection;
+        this.connectionFactory = connectionFactory;
+        this.poolSize = Math.max(1, poolSize);
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+        this.validationInterval = validationInterval;
+        this.borrowTimeout = borrowTimeout;
+        logger.debug("Configured pool of {} connections with {} cached statements each for {}", new Object[]{this.poolSize, this.statementCacheSize, dbConnection});
+    }
+
+    // Connections are created on demand till pool size is reached; after that the caller waits for a connection to be released.
+    PooledConnection borrow() {
+        long waitTill = System.currentTimeMillis() + borrowTimeout;
+        while (true) {
+            if (closed)
+                throw new OIMAdminException("Database connection pool of " + dbConnection + " has been closed.");
+            PooledConnection pooledConnection = idleConnections.poll();
+            if (pooledConnection == null && connections.size() < poolSize) {
+                pooledConnection = create();
+                if (pooledConnection != null)
+                    return pooledConnection;
+            }
+            if (pooledConnection == null) {
+                long waitTime = waitTill - System.currentTimeMillis();
+                if (waitTime <= 0)
+                    throw new OIMAdminException("Timed out after " + borrowTimeout + " ms while waiting for a database connection of " + dbConnection);
+                try {
+                    pooledConnection = idleConnections.poll(Math.min(waitTime, 1000L), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new OIMAdminException("Interrupted while waiting for a database connection of " + dbConnection, exception);
+                }
+                if (pooledConnection == null)
+                    continue;
+            }
+            if (pooledConnection.validate())
+                return pooledConnection;
+            pooledConnection.close(false);
+        }
+    }
+
+    private PooledConnection create() {
+        PooledConnection pooledConnection;
+        synchronized (connections) {
+            if (connections.size() >= poolSize)
+                return null;
+            pooledConnection = new PooledConnection("DB-" + connectionCounter.getAndIncrement());
+            connections.add(pooledConnection);
+        }
+        try {
+            logger.debug("Trying to create pooled database connection {} of {}", pooledConnection.label, dbConnection);
+            pooledConnection.connection = connectionFactory.call();
+            pooledConnection.lastVerified = System.currentTimeMillis();
+            logger.debug("Created pooled database connection {}", pooledConnection.label);
+            return pooledConnection;
+        } catch (Exception exception) {
+            connections.remove(pooledConnection);
+            throw new OIMAdminException("Failed to connect to database " + dbConnection, exception);
+        }
+    }
+
+    void close() {
+        closed = true;
+        for (PooledConnection pooledConnection : new ArrayList<>(connections)) {
+            pooledConnection.close(true);
+        }
+        idleConnections.clear();
+    }
+
+    static class CachedStatement {
+        final PreparedStatement statement;
+        private int parameterCount = -1;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        // Parameter details need a round trip to the database and are therefore read only once for a statement.
+        int getParameterCount() throws SQLException {
+            if (parameterCount < 0)
+                parameterCount = statement.getParameterMetaData().getParameterCount();
+            return parameterCount;
+        }
+
+        void close(String label) {
+            try {
+                statement.close();
+            } catch (Exception exception) {
+                logger.debug("Failed to close statement of pooled database connection " + label + ". Ignoring the error", exception);
+            }
+        }
+    }
+
+    class PooledConnection {
+        private final String label;
+        private final List<CachedStatement> uncachedStatements = new ArrayList<>();
+        private final Map<String, CachedStatement> statementCache = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() > statementCacheSize) {
+                    logger.trace("Removing statement {} from cache of pooled database connection {}", eldest.getKey(), label);
+                    eldest.getValue().close(label);
+                    return true;
+                }
+                return false;
+            }
+        };
+        private Connection connection;
+        private long lastVerified = 0;
+
+        PooledConnection(String label) {
+            this.label = label;
+        }
+
+        Connection getConnection() {
+            return connection;
+        }
+
+        synchronized CachedStatement prepareStatement(String sqlID, boolean generatedKeys) throws SQLException {
+            String key = (generatedKeys ? "K:" : "Q:") + sqlID;
+            CachedStatement cachedStatement = statementCache.get(key);
+            if (cachedStatement == null) {
+                cachedStatement = new CachedStatement(generatedKeys ? connection.prepareStatement(sqlID, PreparedStatement.RETURN_GENERATED_KEYS)
+                        : connection.prepareStatement(sqlID));
+                if (statementCacheSize > 0)
+                    statementCache.put(key, cachedStatement);
+                else
+                    uncachedStatements.add(cachedStatement);
+            } else {
+                logger.trace("Using cached statement for SQL {} on pooled database connection {}", sqlID, label);
+                cachedStatement.statement.clearParameters();
+            }
+            return cachedStatement;
+        }
+
+        private boolean validate() {
+            long now = System.currentTimeMillis();
+            if (now - lastVerified < validationInterval)
+                return true;
+            try {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    lastVerified = now;
+                    return true;
+                }
+                logger.warn("Pooled database connection {} of {} is no longer valid. Discarding it.", label, dbConnection);
+            } catch (Exception exception) {
+                logger.warn("Validation of pooled database connection " + label + " of " + dbConnection + " failed. Discarding it.", exception);
+            }
+            return false;
+        }
+
+        // Connections that were used by a failed operation are validated before they are used again.
+        void release(boolean failed) {
+            for (CachedStatement uncachedStatement : uncachedStatements) {
+                uncachedStatement.close(label);
+            }
+            uncachedStatements.clear();
+            if (failed)
+                lastVerified = 0;
+            if (closed)
+                close(true);
+            else
+                idleConnections.offer(this);
+        }
+
+        synchronized void close(boolean commit) {
+            connections.remove(this);
+            if (connection == null)
+                return;
+            for (CachedStatement cachedStatement : statementCache.values()) {
+                cachedStatement.close(label);
+            }
+            statementCache.clear();
+            if (commit) {
+                try {
+                    connection.commit();
+                } catch (Exception exception) {
+                    logger.warn("Failed to commit transaction of pooled database connection " + label + " of " + dbConnection + ". Ignoring the same.", exception);
+                }
+            }
+            try {
+                connection.close();
+            } catch (Exception exception) {
+                logger.warn("Failed to close pooled database connection " + label + " of " + dbConnection + ". Ignoring the same", exception);
+            }
+            connection = null;
+        }
+    }
+}
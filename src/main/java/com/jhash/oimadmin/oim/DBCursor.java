@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.oim;
+
+import com.jhash.oimadmin.OIMAdminException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.sql.*;
+import java.util.*;
+
+// Rows are read from the database only when requested. BLOB and CLOB values are returned as the driver's Blob and Clob
+// locators so that their content can be streamed; the locators are only valid till the cursor moves to the next row.
+// Date and timestamp columns are always returned as java.sql.Timestamp even if the driver uses its own types for them
+// (e.g. oracle.sql.TIMESTAMP).
+public class DBCursor implements Iterator<Map<String, Object>>, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DBCursor.class);
+    private final String sqlID;
+    private final DBConnectionPool.PooledConnection pooledConnection;
+    private final ResultSet resultSet;
+    private final String[] columnLabels;
+    private final boolean[] timestampColumns;
+    private final List<Object> largeObjects = new ArrayList<>();
+    private Boolean hasNext = null;
+    private long rowCount = 0;
+    private boolean failed = false;
+    private boolean closed = false;
+
+    // If a pooled connection is provided, it is released once the cursor is closed.
+    DBCursor(String sqlID, PreparedStatement preparedStatement, DBConnectionPool.PooledConnection pooledConnection) {
+        this.sqlID = sqlID;
+        this.pooledConnection = pooledConnection;
+        try {
+            resultSet = preparedStatement.executeQuery();
+            ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+            int totalColumnsInResult = resultSetMetaData.getColumnCount();
+            columnLabels = new String[totalColumnsInResult];
+            timestampColumns = new boolean[totalColumnsInResult];
+            for (int columnCounter = 1; columnCounter <= totalColumnsInResult; columnCounter++) {
+                columnLabels[columnCounter - 1] = resultSetMetaData.getColumnLabel(columnCounter);
+                timestampColumns[columnCounter - 1] = isTimestampType(resultSetMetaData.getColumnType(columnCounter));
+            }
+        } catch (Exception exception) {
+            failed = true;
+            close();
+            throw new OIMAdminException("Failed to execute SQL " + sqlID, exception);
+        }
+    }
+
+    public String[] getColumns() {
+        return columnLabels.clone();
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (hasNext == null) {
+            if (closed)
+                return false;
+            freeLargeObjects();
+            try {
+                hasNext = resultSet.next();
+            } catch (Exception exception) {
+                failed = true;
+                close();
+                throw new OIMAdminException("Failed to read next record of SQL " + sqlID, exception);
+            }
+            if (!hasNext)
+                close();
+        }
+        return hasNext;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+        Object[] values = nextValues();
+        Map<String, Object> record = new HashMap<>();
+        for (int columnCounter = 0; columnCounter < columnLabels.length; columnCounter++) {
+            record.put(columnLabels[columnCounter], values[columnCounter]);
+        }
+        return record;
+    }
+
+    // Returns values of next record in the same order as columns.
+    public Object[] nextValues() {
+        if (!hasNext())
+            throw new NoSuchElementException("No more records available for SQL " + sqlID);
+        hasNext = null;
+        Object[] values = new Object[columnLabels.length];
+        try {
+            for (int columnCounter = 1; columnCounter <= columnLabels.length; columnCounter++) {
+                Object columnValue = resultSet.getObject(columnCounter);
+                if (columnValue != null && timestampColumns[columnCounter - 1] && !(columnValue instanceof java.util.Date))
+                    columnValue = resultSet.getTimestamp(columnCounter);
+                if (columnValue instanceof Blob || columnValue instanceof Clob)
+                    largeObjects.add(columnValue);
+                values[columnCounter - 1] = columnValue;
+            }
+        } catch (Exception exception) {
+            failed = true;
+            close();
+            throw new OIMAdminException("Failed to read record " + (rowCount + 1) + " of SQL " + sqlID, exception);
+        }
+        rowCount++;
+        return values;
+    }
+
+    // Oracle reports TIMESTAMP WITH TIME ZONE as -101 and TIMESTAMP WITH LOCAL TIME ZONE as -102, JDBC 4.2 uses 2014.
+    private static boolean isTimestampType(int sqlType) {
+        switch (sqlType) {
+            case Types.DATE:
+            case Types.TIMESTAMP:
+            case 2014:
+            case -101:
+            case -102:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Records can not be removed from cursor of SQL " + sqlID);
+    }
+
+    private void freeLargeObjects() {
+        for (Object largeObject : largeObjects) {
+            try {
+                if (largeObject instanceof Blob)
+                    ((Blob) largeObject).free();
+                else
+                    ((Clob) largeObject).free();
+            } catch (Throwable exception) {
+                logger.trace("Failed to free large object of SQL " + sqlID + ". Ignoring the error.", exception);
+            }
+        }
+        largeObjects.clear();
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        hasNext = false;
+        freeLargeObjects();
+        if (resultSet != null) {
+            try {
+                resultSet.close();
+            } catch (Exception exception) {
+                logger.warn("Failed to close result of SQL " + sqlID + ". Ignoring the error.", exception);
+            }
+        }
+        if (pooledConnection != null)
+            pooledConnection.release(failed);
+        logger.trace("Closed cursor of SQL {} after reading {} records", sqlID, rowCount);
+    }
+}
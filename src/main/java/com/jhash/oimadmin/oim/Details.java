@@ -16,46 +16,96 @@
 
 package com.jhash.oimadmin.oim;
 
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
+// Values are stored as one array per row, indexed by column. Rows are exposed as maps that read and write through to the
+// row array; keys that are not columns (e.g. values added while processing the result) are stored separately for the row.
 public class Details implements Iterable<Map<String, Object>> {
-    private List<Map<String, Object>> values;
-    private String[] columnNames;
+    private final String[] columnNames;
+    private final Map<String, Integer> columnIndexes;
+    private final Object[][] data;
+    private final Map<Integer, Map<String, Object>> additionalValues = new HashMap<>();
 
     public Details(List<Map<String, Object>> values, String[] columnNames) {
-        this.values = values;
         this.columnNames = columnNames;
+        this.columnIndexes = createColumnIndexes(columnNames);
+        this.data = new Object[values.size()][];
+        int rowCounter = 0;
+        for (Map<String, Object> value : values) {
+            Object[] row = new Object[columnNames.length];
+            for (Map.Entry<String, Object> column : value.entrySet()) {
+                Integer columnIndex = columnIndexes.get(column.getKey());
+                if (columnIndex != null) {
+                    row[columnIndex] = column.getValue();
+                } else {
+                    getAdditionalValues(rowCounter, true).put(column.getKey(), column.getValue());
+                }
+            }
+            data[rowCounter++] = row;
+        }
+    }
+
+    // Each row must have a value for every column in the same order as column names. Rows are used as-is without copying.
+    public Details(String[] columnNames, List<Object[]> rows) {
+        this.columnNames = columnNames;
+        this.columnIndexes = createColumnIndexes(columnNames);
+        this.data = rows.toArray(new Object[rows.size()][]);
+        for (int rowCounter = 0; rowCounter < data.length; rowCounter++) {
+            if (data[rowCounter] == null || data[rowCounter].length != columnNames.length)
+                throw new IllegalArgumentException("Row " + rowCounter + " has " + (data[rowCounter] == null ? "no" : data[rowCounter].length)
+                        + " values instead of " + columnNames.length + " for columns " + Arrays.toString(columnNames));
+        }
+    }
+
+    private static Map<String, Integer> createColumnIndexes(String[] columnNames) {
+        Map<String, Integer> columnIndexes = new HashMap<>();
+        for (int columnCounter = 0; columnCounter < columnNames.length; columnCounter++) {
+            columnIndexes.put(columnNames[columnCounter], columnCounter);
+        }
+        return Collections.unmodifiableMap(columnIndexes);
+    }
+
+    private Map<String, Object> getAdditionalValues(int index, boolean create) {
+        Map<String, Object> values = additionalValues.get(index);
+        if (values == null && create) {
+            values = new HashMap<>();
+            additionalValues.put(index, values);
+        }
+        return values;
     }
 
     public Map<String, Object> getItemAt(int index) {
-        return values.get(index);
+        if (index < 0 || index >= data.length)
+            throw new IndexOutOfBoundsException("Index " + index + " is not valid for result of size " + data.length);
+        return new Record(index);
     }
 
     public Object getItemAt(int index, String key, Object defaultValue) {
-        Map<String, Object> item = values.get(index);
-        if (item == null)
-            return defaultValue;
-        if (!item.containsKey(key))
-            return defaultValue;
-        Object value = item.get(key);
+        Object value = getValueAt(index, key);
         if (value == null)
             return defaultValue;
         return value;
     }
 
+    public Object getValueAt(int index, String key) {
+        Integer columnIndex = columnIndexes.get(key);
+        if (columnIndex != null)
+            return data[index][columnIndex];
+        Map<String, Object> values = getAdditionalValues(index, false);
+        return values == null ? null : values.get(key);
+    }
+
+    public Object getValueAt(int index, int columnIndex) {
+        return data[index][columnIndex];
+    }
+
+    public int getColumnIndex(String columnName) {
+        Integer columnIndex = columnIndexes.get(columnName);
+        return columnIndex == null ? -1 : columnIndex;
+    }
+
+    // Returns the underlying rows; changes to the returned array are visible through this result.
     public Object[][] getData() {
-        Object[][] data = new Object[values.size()][];
-        int rowCounter = 0;
-        for (Map<String, Object> value : values) {
-            Object[] valueArray = new Object[columnNames.length];
-            int columnCounter = 0;
-            for (String columnName : columnNames) {
-                valueArray[columnCounter++] = value.get(columnName);
-            }
-            data[rowCounter++] = valueArray;
-        }
         return data;
     }
 
@@ -64,11 +114,129 @@ public class Details implements Iterable<Map<String, Object>> {
     }
 
     public int size() {
-        return values.size();
+        return data.length;
     }
 
     @Override
     public Iterator<Map<String, Object>> iterator() {
-        return values.iterator();
+        return new Iterator<Map<String, Object>>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < data.length;
+            }
+
+            @Override
+            public Map<String, Object> next() {
+                if (index >= data.length)
+                    throw new NoSuchElementException();
+                return new Record(index++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Records can not be removed from result");
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "Details [columns=" + Arrays.toString(columnNames) + ", size=" + data.length + "]";
+    }
+
+    // Column keys are always present in the record; removing a column only clears its value.
+    private class Record extends AbstractMap<String, Object> {
+        private final int index;
+
+        Record(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return key instanceof String ? getValueAt(index, (String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            if (columnIndexes.containsKey(key))
+                return true;
+            Map<String, Object> values = getAdditionalValues(index, false);
+            return values != null && values.containsKey(key);
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            Integer columnIndex = columnIndexes.get(key);
+            if (columnIndex != null) {
+                Object existingValue = data[index][columnIndex];
+                data[index][columnIndex] = value;
+                return existingValue;
+            }
+            return getAdditionalValues(index, true).put(key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            Integer columnIndex = columnIndexes.get(key);
+            if (columnIndex != null)
+                return put((String) key, null);
+            Map<String, Object> values = getAdditionalValues(index, false);
+            return values == null ? null : values.remove(key);
+        }
+
+        @Override
+        public int size() {
+            Map<String, Object> values = getAdditionalValues(index, false);
+            return columnNames.length + (values == null ? 0 : values.size());
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    final Map<String, Object> values = getAdditionalValues(index, false);
+                    final Iterator<Entry<String, Object>> additionalIterator = values == null ? null : values.entrySet().iterator();
+                    return new Iterator<Entry<String, Object>>() {
+                        private int columnCounter = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return columnCounter < columnNames.length || (additionalIterator != null && additionalIterator.hasNext());
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (columnCounter < columnNames.length) {
+                                final int columnIndex = columnCounter++;
+                                return new SimpleEntry<String, Object>(columnNames[columnIndex], data[index][columnIndex]) {
+                                    @Override
+                                    public Object setValue(Object value) {
+                                        data[index][columnIndex] = value;
+                                        return super.setValue(value);
+                                    }
+                                };
+                            }
+                            if (additionalIterator == null)
+                                throw new NoSuchElementException();
+                            return additionalIterator.next();
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException("Columns can not be removed from record");
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return Record.this.size();
+                }
+            };
+        }
     }
 }
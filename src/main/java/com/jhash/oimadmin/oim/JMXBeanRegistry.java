@@ -0,0 +1,234 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.oim;
+
+import com.jhash.oimadmin.OIMAdminException;
+import com.jhash.oimadmin.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.*;
+import javax.management.relation.MBeanServerNotificationFilter;
+import java.util.*;
+import java.util.concurrent.*;
+
+class JMXBeanRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(JMXBeanRegistry.class);
+    private final ConcurrentMap<JMXConnection.OIM_JMX_BEANS, ObjectInstance> beanCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<JMXConnection.OIM_JMX_BEANS, List<ObjectInstance>> beanTypeCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<JMXConnection.OIM_JMX_BEANS, Future<Set<ObjectInstance>>> pendingQueries = new ConcurrentHashMap<>();
+    private final List<JMXConnection.BeanRegistrationListener> listeners = new CopyOnWriteArrayList<>();
+    private final NotificationListener registrationListener = new NotificationListener() {
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (!(notification instanceof MBeanServerNotification))
+                return;
+            ObjectName beanName = ((MBeanServerNotification) notification).getMBeanName();
+            if (MBeanServerNotification.REGISTRATION_NOTIFICATION.equals(notification.getType())) {
+                registered(beanName);
+            } else if (MBeanServerNotification.UNREGISTRATION_NOTIFICATION.equals(notification.getType())) {
+                unregistered(beanName);
+            }
+        }
+    };
+    private final JMXConnection jmxConnection;
+    private MBeanServerConnection connection;
+
+    JMXBeanRegistry(JMXConnection jmxConnection) {
+        this.jmxConnection = jmxConnection;
+    }
+
+    static boolean matches(JMXConnection.OIM_JMX_BEANS jmxBean, ObjectName beanName) {
+        if (jmxBean == null || beanName == null)
+            return false;
+        ObjectInstance bean = new ObjectInstance(beanName, null);
+        return (jmxBean.nameSpace == null || jmxBean.nameSpace.equals(beanName.getDomain()))
+                && (jmxBean.type == null || jmxBean.type.equals(JMXUtils.getType(bean)))
+                && (jmxBean.name == null || jmxBean.name.equals(JMXUtils.getName(bean)));
+    }
+
+    synchronized void start(MBeanServerConnection connection) {
+        this.connection = connection;
+        try {
+            MBeanServerNotificationFilter filter = new MBeanServerNotificationFilter();
+            filter.enableAllObjectNames();
+            connection.addNotificationListener(MBeanServerDelegate.DELEGATE_NAME, registrationListener, filter, null);
+            logger.debug("Registered for bean registration notifications on {}", jmxConnection);
+        } catch (Exception exception) {
+            logger.warn("Failed to register for bean registration notifications on " + jmxConnection + ". Bean cache will not track bean (un)registration.", exception);
+        }
+    }
+
+    synchronized void stop() {
+        if (connection != null) {
+            try {
+                connection.removeNotificationListener(MBeanServerDelegate.DELEGATE_NAME, registrationListener);
+            } catch (Exception exception) {
+                logger.debug("Failed to remove bean registration listener from " + jmxConnection, exception);
+            }
+            connection = null;
+        }
+        beanCache.clear();
+        beanTypeCache.clear();
+    }
+
+    void addListener(JMXConnection.BeanRegistrationListener listener) {
+        if (listener != null)
+            listeners.add(listener);
+    }
+
+    void removeListener(JMXConnection.BeanRegistrationListener listener) {
+        listeners.remove(listener);
+    }
+
+    private synchronized MBeanServerConnection getConnection() {
+        if (connection == null)
+            throw new IllegalStateException("The bean registry of " + jmxConnection + " has not been started");
+        return connection;
+    }
+
+    // Concurrent look ups of same bean share a single query while look ups of different beans run in parallel.
+    private Set<ObjectInstance> query(final JMXConnection.OIM_JMX_BEANS jmxBean) {
+        FutureTask<Set<ObjectInstance>> query = new FutureTask<>(new Callable<Set<ObjectInstance>>() {
+            @Override
+            public Set<ObjectInstance> call() throws Exception {
+                return JMXUtils.getJMXBean(getConnection(), jmxBean);
+            }
+        });
+        Future<Set<ObjectInstance>> pendingQuery = pendingQueries.putIfAbsent(jmxBean, query);
+        if (pendingQuery == null) {
+            pendingQuery = query;
+            try {
+                query.run();
+            } finally {
+                pendingQueries.remove(jmxBean, query);
+            }
+        }
+        try {
+            return pendingQuery.get();
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException)
+                throw (RuntimeException) exception.getCause();
+            throw new OIMAdminException("Failed to get JMX Bean for " + jmxBean, exception);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new OIMAdminException("Interrupted while locating JMX Bean " + jmxBean, exception);
+        }
+    }
+
+    private void addBeanOfType(JMXConnection.OIM_JMX_BEANS jmxBean, ObjectInstance bean) {
+        List<ObjectInstance> beanList = beanTypeCache.get(jmxBean);
+        if (beanList == null) {
+            beanList = new CopyOnWriteArrayList<>();
+            List<ObjectInstance> existingBeanList = beanTypeCache.putIfAbsent(jmxBean, beanList);
+            if (existingBeanList != null)
+                beanList = existingBeanList;
+        }
+        for (ObjectInstance existingBean : beanList) {
+            if (existingBean.getObjectName().equals(bean.getObjectName()))
+                return;
+        }
+        beanList.add(bean);
+    }
+
+    void registered(ObjectName beanName) {
+        if (beanName == null)
+            return;
+        logger.trace("Bean {} has been registered", beanName);
+        // Only types that have already been looked up are extended, others are looked up completely on first use.
+        ObjectInstance bean = new ObjectInstance(beanName, null);
+        for (JMXConnection.OIM_JMX_BEANS jmxBean : beanTypeCache.keySet()) {
+            if (matches(jmxBean, beanName))
+                addBeanOfType(jmxBean, bean);
+        }
+        for (JMXConnection.BeanRegistrationListener listener : listeners) {
+            try {
+                listener.registered(beanName);
+            } catch (Exception exception) {
+                logger.warn("Failed to notify listener " + listener + " of registration of " + beanName, exception);
+            }
+        }
+    }
+
+    void unregistered(ObjectName beanName) {
+        if (beanName == null)
+            return;
+        logger.trace("Bean {} has been unregistered", beanName);
+        Iterator<Map.Entry<JMXConnection.OIM_JMX_BEANS, ObjectInstance>> beans = beanCache.entrySet().iterator();
+        while (beans.hasNext()) {
+            if (beans.next().getValue().getObjectName().equals(beanName))
+                beans.remove();
+        }
+        for (Map.Entry<JMXConnection.OIM_JMX_BEANS, List<ObjectInstance>> beansOfType : beanTypeCache.entrySet()) {
+            for (ObjectInstance bean : beansOfType.getValue()) {
+                if (bean.getObjectName().equals(beanName))
+                    beansOfType.getValue().remove(bean);
+            }
+            // An empty list would hide beans registered later, so the type is looked up again on next use.
+            if (beansOfType.getValue().isEmpty())
+                beanTypeCache.remove(beansOfType.getKey(), beansOfType.getValue());
+        }
+        for (JMXConnection.BeanRegistrationListener listener : listeners) {
+            try {
+                listener.unregistered(beanName);
+            } catch (Exception exception) {
+                logger.warn("Failed to notify listener " + listener + " of unregistration of " + beanName, exception);
+            }
+        }
+    }
+
+    List<ObjectInstance> getBeansOfType(JMXConnection.OIM_JMX_BEANS jmxBeans) {
+        List<ObjectInstance> beansOfType = beanTypeCache.get(jmxBeans);
+        if (beansOfType == null) {
+            Set<ObjectInstance> result = query(jmxBeans);
+            if (result.isEmpty())
+                return null;
+            for (ObjectInstance resultItem : result) {
+                addBeanOfType(jmxBeans, resultItem);
+            }
+            if (result.size() == 1 && !Utils.isEmpty(jmxBeans.name)) {
+                beanCache.put(jmxBeans, result.iterator().next());
+            }
+            if (Utils.isEmpty(jmxBeans.name)) {
+                for (ObjectInstance resultItem : result) {
+                    beanCache.put(new JMXConnection.OIM_JMX_BEANS(resultItem), resultItem);
+                }
+            }
+            beansOfType = beanTypeCache.get(jmxBeans);
+        }
+        return beansOfType;
+    }
+
+    ObjectInstance getBean(JMXConnection.OIM_JMX_BEANS jmxBean) {
+        ObjectInstance bean = beanCache.get(jmxBean);
+        if (bean == null) {
+            Set<ObjectInstance> result = query(jmxBean);
+            if (result.isEmpty())
+                return null;
+            List<ObjectInstance> resultAsList = new ArrayList<>(result);
+            if (!Utils.isEmpty(jmxBean.type)) {
+                for (ObjectInstance resultItem : resultAsList) {
+                    addBeanOfType(jmxBean, resultItem);
+                }
+            }
+            bean = resultAsList.get(0);
+            beanCache.put(jmxBean, bean);
+        }
+        return bean;
+    }
+}
@@ -24,12 +24,15 @@ import com.jhash.oimadmin.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.management.MBeanServerConnection;
-import javax.management.ObjectInstance;
+import javax.management.*;
+import javax.management.remote.JMXConnectionNotification;
 import javax.management.remote.JMXConnector;
 import javax.management.remote.JMXConnectorFactory;
 import javax.management.remote.JMXServiceURL;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class JMXConnection extends AbstractConnection {
 
@@ -38,17 +41,68 @@ public class JMXConnection extends AbstractConnection {
     public static final String ATTR_JMX_PORT = "jmx_port";
     public static final String ATTR_JMX_USER = "jmx_user";
     public static final String ATTR_JMX_PWD = "jmx_pwd";
+    public static final String ATTR_JMX_URL = "jmx_url";
+    public static final String ATTR_JMX_POOL_SIZE_PREFIX = "jmx_pool_size_";
+    public static final String ATTR_JMX_POOL_HEALTH_CHECK_INTERVAL = "jmx_pool_health_check_interval";
+    public static final int DEFAULT_JMX_POOL_SIZE = 0;
+    public static final long DEFAULT_JMX_POOL_HEALTH_CHECK_INTERVAL = 10000L;
+    public static final String ATTR_JMX_RECONNECT = "jmx_reconnect";
+    public static final String ATTR_JMX_RECONNECT_INITIAL_DELAY = "jmx_reconnect_initial_delay";
+    public static final String ATTR_JMX_RECONNECT_MAX_DELAY = "jmx_reconnect_max_delay";
+    public static final String ATTR_JMX_RECONNECT_WAIT = "jmx_reconnect_wait";
+    public static final boolean DEFAULT_JMX_RECONNECT = true;
+    public static final long DEFAULT_JMX_RECONNECT_INITIAL_DELAY = 1000L;
+    public static final long DEFAULT_JMX_RECONNECT_MAX_DELAY = 60000L;
+    public static final long DEFAULT_JMX_RECONNECT_WAIT = 30000L;
+    public static final String ATTR_JMX_ASYNC_THREADS = "jmx_async_threads";
+    public static final String ATTR_JMX_ASYNC_TIMEOUT = "jmx_async_timeout";
+    public static final int DEFAULT_JMX_ASYNC_THREADS = 8;
+    public static final long DEFAULT_JMX_ASYNC_TIMEOUT = 60000L;
+    public static final String ATTR_JMX_PARALLELISM = "jmx_parallelism";
+    public static final int DEFAULT_JMX_PARALLELISM = 4;
 
 
     private static final Logger logger = LoggerFactory.getLogger(JMXConnection.class);
-    private final Map<OIM_JMX_BEANS, ObjectInstance> beanCache = new HashMap<>();
-    private final Map<OIM_JMX_BEANS, List<ObjectInstance>> beanTypeCache = new HashMap<>();
+    private final JMXBeanRegistry beanRegistry = new JMXBeanRegistry(this);
+    private final JMXMetadataCache metadataCache = new JMXMetadataCache();
+    private final Object reconnectLock = new Object();
+    private final NotificationListener connectionListener = new NotificationListener() {
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (JMXConnectionNotification.FAILED.equals(notification.getType()) || JMXConnectionNotification.CLOSED.equals(notification.getType())) {
+                logger.warn("JMX Connection {} reported {}", JMXConnection.this, notification.getType());
+                connectionLost();
+            }
+        }
+    };
     private JMXConnector jmxConnector = null;
-    private MBeanServerConnection serverConnection = null;
+    private JMXConnectorPool connectorPool = null;
+    private String serviceLocation = null;
+    private volatile MBeanServerConnection serverConnection = null;
+    private volatile ScheduledExecutorService reconnectExecutor = null;
+    private volatile boolean reconnecting = false;
+    private long reconnectInitialDelay = DEFAULT_JMX_RECONNECT_INITIAL_DELAY;
+    private long reconnectMaxDelay = DEFAULT_JMX_RECONNECT_MAX_DELAY;
+    private long reconnectWait = DEFAULT_JMX_RECONNECT_WAIT;
+    private volatile ExecutorService asyncExecutor = null;
+    private volatile ScheduledThreadPoolExecutor asyncTimeoutExecutor = null;
+    private long asyncTimeout = DEFAULT_JMX_ASYNC_TIMEOUT;
+    private int parallelism = DEFAULT_JMX_PARALLELISM;
     private Config.OIM_VERSION oimVersion = null;
 
     public JMXConnection() {
         STRING_REPRESENTATION = "JMXConnection:";
+        beanRegistry.addListener(new BeanRegistrationListener() {
+            @Override
+            public void registered(ObjectName beanName) {
+                metadataCache.invalidate(beanName);
+            }
+
+            @Override
+            public void unregistered(ObjectName beanName) {
+                metadataCache.invalidate(beanName);
+            }
+        });
     }
 
     @Override
@@ -60,21 +114,77 @@ public class JMXConnection extends AbstractConnection {
             jmxConnector = createJMXConnector(config);
             logger.debug("Created JMX Connector");
             String connectionId = jmxConnector.getConnectionId();
-            STRING_REPRESENTATION = STRING_REPRESENTATION + "(Connection ID: " + connectionId + ")";
+            STRING_REPRESENTATION = STRING_REPRESENTATION + "[" + serviceLocation + "](Connection ID: " + connectionId + ")";
             serverConnection = jmxConnector.getMBeanServerConnection();
+            beanRegistry.start(serverConnection);
             isConnected = true;
+            JMXMetrics.register();
+            if (Boolean.parseBoolean(config.getProperty(ATTR_JMX_RECONNECT, "" + DEFAULT_JMX_RECONNECT))) {
+                reconnectInitialDelay = Long.parseLong(config.getProperty(ATTR_JMX_RECONNECT_INITIAL_DELAY, "" + DEFAULT_JMX_RECONNECT_INITIAL_DELAY));
+                reconnectMaxDelay = Long.parseLong(config.getProperty(ATTR_JMX_RECONNECT_MAX_DELAY, "" + DEFAULT_JMX_RECONNECT_MAX_DELAY));
+                reconnectWait = Long.parseLong(config.getProperty(ATTR_JMX_RECONNECT_WAIT, "" + DEFAULT_JMX_RECONNECT_WAIT));
+                reconnectExecutor = Utils.createScheduledExecutorService("JMX Reconnect " + name);
+                jmxConnector.addConnectionNotificationListener(connectionListener, null, null);
+            }
         } catch (Exception exception) {
             throw new OIMAdminException("Failed to create JMX Connector while initializing JMX Connection " + this,
                     exception);
         }
-        oimVersion = OIMUtils.getVersion(OIMUtils.getOIMServerDetails(this).Version);
+        // Connection is usable without OIM beans (e.g. to capture DMS performance data) and hence the version is treated as
+        // unknown if it can not be read.
+        try {
+            oimVersion = OIMUtils.getVersion(OIMUtils.getOIMServerDetails(this).Version);
+        } catch (Exception exception) {
+            logger.warn("Failed to read OIM version using " + OIMUtils.OIM_VERSION_INFO_MBEAN_NAME + " on " + this + ", using version "
+                    + Config.OIM_VERSION.UNKNOWN, exception);
+            oimVersion = Config.OIM_VERSION.UNKNOWN;
+        }
+        connectorPool = createConnectorPool(config);
+        int asyncThreads = Integer.parseInt(config.getProperty(ATTR_JMX_ASYNC_THREADS, "" + DEFAULT_JMX_ASYNC_THREADS));
+        asyncTimeout = Long.parseLong(config.getProperty(ATTR_JMX_ASYNC_TIMEOUT, "" + DEFAULT_JMX_ASYNC_TIMEOUT));
+        parallelism = Integer.parseInt(config.getProperty(ATTR_JMX_PARALLELISM, "" + DEFAULT_JMX_PARALLELISM));
+        asyncTimeoutExecutor = new ScheduledThreadPoolExecutor(1, Utils.createThreadFactory("JMX Timeout " + name));
+        asyncTimeoutExecutor.setRemoveOnCancelPolicy(true);
+        asyncExecutor = Utils.createExecutorService("JMX IO " + name, asyncThreads > 0 ? asyncThreads : DEFAULT_JMX_ASYNC_THREADS);
         logger.debug("Initialized JMX Connection");
     }
 
+    private JMXConnectorPool createConnectorPool(final Configuration config) {
+        Map<WORKLOAD, Integer> poolSizes = new EnumMap<>(WORKLOAD.class);
+        for (WORKLOAD workload : WORKLOAD.values()) {
+            int poolSize = Integer.parseInt(config.getProperty(ATTR_JMX_POOL_SIZE_PREFIX + workload.name().toLowerCase(), "" + DEFAULT_JMX_POOL_SIZE));
+            if (poolSize > 0)
+                poolSizes.put(workload, poolSize);
+        }
+        if (poolSizes.isEmpty())
+            return null;
+        long healthCheckInterval = Long.parseLong(config.getProperty(ATTR_JMX_POOL_HEALTH_CHECK_INTERVAL, "" + DEFAULT_JMX_POOL_HEALTH_CHECK_INTERVAL));
+        return new JMXConnectorPool(this, new Callable<JMXConnector>() {
+            @Override
+            public JMXConnector call() throws Exception {
+                return createJMXConnector(config);
+            }
+        }, poolSizes, healthCheckInterval);
+    }
+
     private JMXConnector createJMXConnector(Configuration config) {
         logger.debug("Trying to create JMX Connector using configuration {}", config);
         Map<String, Object> env = new HashMap<>();
         JMXServiceURL serviceUrl;
+        String jmxURL = config.getProperty(ATTR_JMX_URL);
+        if (!Utils.isEmpty(jmxURL)) {
+            logger.debug("JMX URL ({})={}", ATTR_JMX_URL, jmxURL);
+            String username = config.getProperty(ATTR_JMX_USER);
+            if (!Utils.isEmpty(username))
+                env.put(JMXConnector.CREDENTIALS, new String[]{username, config.getProperty(ATTR_JMX_PWD)});
+            serviceLocation = jmxURL;
+            try {
+                logger.debug("Trying to connect to JMX server");
+                return JMXConnectorFactory.connect(new JMXServiceURL(jmxURL), env);
+            } catch (Exception exception) {
+                throw new OIMAdminException("Failed to connect to JMX server " + jmxURL + " of connection " + name + ".", exception);
+            }
+        }
         String hostname = config.getProperty(ATTR_JMX_HOSTNAME);
         logger.debug("Host name ({})={}", ATTR_JMX_HOSTNAME, hostname);
         if (hostname == null || hostname.isEmpty())
@@ -145,7 +255,7 @@ public class JMXConnection extends AbstractConnection {
             default:
                 throw new UnsupportedOperationException("The platform " + platform + " is not supported.");
         }
-        STRING_REPRESENTATION = STRING_REPRESENTATION + "[" + serviceUrl + "]";
+        serviceLocation = serviceUrl.toString();
         try {
             logger.debug("Trying to connect to JMX server");
             return JMXConnectorFactory.connect(serviceUrl, env);
@@ -154,10 +264,190 @@ public class JMXConnection extends AbstractConnection {
         }
     }
 
+    private void connectionLost() {
+        synchronized (reconnectLock) {
+            ScheduledExecutorService executor = reconnectExecutor;
+            if (reconnecting || executor == null || executor.isShutdown())
+                return;
+            logger.info("Scheduling reconnect of JMX Connection {}", this);
+            reconnecting = true;
+            scheduleReconnect(0);
+        }
+    }
+
+    private void scheduleReconnect(final int attempt) {
+        // Exponential backoff: initial delay, 2 * initial delay, 4 * initial delay... up to maximum delay.
+        long delay = attempt == 0 ? 0 : Math.min(reconnectMaxDelay, reconnectInitialDelay << Math.min(attempt - 1, 30));
+        ScheduledExecutorService executor = reconnectExecutor;
+        if (executor == null) {
+            reconnectCompleted();
+            return;
+        }
+        try {
+            executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    reconnect(attempt);
+                }
+            }, delay < 0 ? reconnectMaxDelay : delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException exception) {
+            logger.debug("Reconnect of {} was not scheduled since connection is being destroyed", this);
+            reconnectCompleted();
+        }
+    }
+
+    private void reconnect(int attempt) {
+        JMXConnector newConnector;
+        try {
+            logger.debug("Trying to reconnect JMX Connection {} (attempt {})", this, attempt + 1);
+            newConnector = createJMXConnector(config);
+            newConnector.addConnectionNotificationListener(connectionListener, null, null);
+        } catch (Exception exception) {
+            logger.warn("Failed to reconnect JMX Connection " + this + " (attempt " + (attempt + 1) + ")", exception);
+            synchronized (reconnectLock) {
+                if (reconnecting)
+                    scheduleReconnect(attempt + 1);
+            }
+            return;
+        }
+        synchronized (this) {
+            if (!isConnected) {
+                closeConnector(newConnector);
+                reconnectCompleted();
+                return;
+            }
+            closeConnector(jmxConnector);
+            beanRegistry.stop();
+            metadataCache.clear();
+            jmxConnector = newConnector;
+            try {
+                serverConnection = jmxConnector.getMBeanServerConnection();
+            } catch (Exception exception) {
+                logger.warn("Failed to get MBean Server Connection after reconnecting " + this, exception);
+                synchronized (reconnectLock) {
+                    scheduleReconnect(attempt + 1);
+                }
+                return;
+            }
+            beanRegistry.start(serverConnection);
+        }
+        logger.info("Reconnected JMX Connection {}", this);
+        reconnectCompleted();
+    }
+
+    private void reconnectCompleted() {
+        synchronized (reconnectLock) {
+            reconnecting = false;
+            reconnectLock.notifyAll();
+        }
+    }
+
+    private void closeConnector(JMXConnector connector) {
+        if (connector == null)
+            return;
+        try {
+            connector.removeConnectionNotificationListener(connectionListener);
+        } catch (Exception exception) {
+            logger.trace("Failed to remove connection listener from JMXConnector " + connector, exception);
+        }
+        try {
+            connector.close();
+        } catch (Exception exception) {
+            logger.debug("Failed to close the JMX Connector " + connector + " of " + this + ". Ignoring the error", exception);
+        }
+    }
+
+    private boolean awaitReconnect() {
+        long deadline = System.currentTimeMillis() + reconnectWait;
+        synchronized (reconnectLock) {
+            while (reconnecting) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0)
+                    return false;
+                try {
+                    reconnectLock.wait(remaining);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return isConnected;
+    }
+
+    // Returns true if the exception was caused by a broken connection, in which case the connection is reconnected.
+    private boolean isConnectionFailure(Exception exception) {
+        if (reconnectExecutor == null)
+            return false;
+        boolean isIOFailure = false;
+        for (Throwable cause = exception; cause != null && !isIOFailure; cause = cause.getCause()) {
+            isIOFailure = cause instanceof IOException;
+        }
+        if (!isIOFailure)
+            return false;
+        MBeanServerConnection connection = serverConnection;
+        if (!reconnecting && connection != null) {
+            try {
+                connection.getMBeanCount();
+                return false;
+            } catch (Exception connectionException) {
+                logger.debug("JMX Connection " + this + " is not available", connectionException);
+            }
+            connectionLost();
+        }
+        return true;
+    }
+
+    // Only idempotent reads are retried once the connection has been re-established.
+    private <T> T readWithRetry(Callable<T> read) {
+        try {
+            return call(read);
+        } catch (RuntimeException exception) {
+            if (!isConnectionFailure(exception) || !awaitReconnect())
+                throw exception;
+            logger.debug("Retrying read on reconnected JMX Connection {}", this);
+            return call(read);
+        }
+    }
+
+    private static <T> T call(Callable<T> read) {
+        try {
+            return read.call();
+        } catch (RuntimeException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new OIMAdminException("Failed to read from JMX Connection", exception);
+        }
+    }
+
     @Override
     protected void destroyConnection() {
         logger.debug("Trying to destroy JMXConnection {}", this);
+        if (reconnectExecutor != null) {
+            reconnectExecutor.shutdownNow();
+            reconnectExecutor = null;
+        }
+        reconnectCompleted();
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdownNow();
+            asyncExecutor = null;
+        }
+        if (asyncTimeoutExecutor != null) {
+            asyncTimeoutExecutor.shutdownNow();
+            asyncTimeoutExecutor = null;
+        }
+        beanRegistry.stop();
+        metadataCache.clear();
+        if (connectorPool != null) {
+            connectorPool.close();
+            connectorPool = null;
+        }
         if (jmxConnector != null) {
+            try {
+                jmxConnector.removeConnectionNotificationListener(connectionListener);
+            } catch (Exception exception) {
+                logger.trace("Failed to remove connection listener from JMXConnector " + jmxConnector, exception);
+            }
             try {
                 logger.debug("Trying to close the  JMXConnector {}", jmxConnector);
                 jmxConnector.close();
@@ -176,112 +466,70 @@ public class JMXConnection extends AbstractConnection {
         return serverConnection;
     }
 
+    public MBeanServerConnection getConnection(WORKLOAD workload) {
+        JMXConnectorPool pool = connectorPool;
+        if (pool != null && workload != null) {
+            MBeanServerConnection pooledConnection = pool.getConnection(workload);
+            if (pooledConnection != null)
+                return pooledConnection;
+        }
+        return getConnection();
+    }
+
     public Config.OIM_VERSION getVersion() {
         return oimVersion;
     }
 
-    private void initializeBeanCache() {
-        logger.trace("Initializing Bean cache for connection {}", this);
-        synchronized (beanCache) {
-            if (beanCache.isEmpty()) {
-                Set<ObjectInstance> allBeans;
-                try {
-                    allBeans = getConnection().queryMBeans(null, null);
-                } catch (Exception exception) {
-                    throw new OIMAdminException("Failed to get a list of all the beans ", exception);
-                }
-                for (ObjectInstance bean : allBeans) {
-                    try {
-                        String beanName = JMXUtils.getName(bean);
-                        String beanType = JMXUtils.getType(bean);
-                        if (beanName != null && OIM_JMX_BEANS.beanNames.contains(beanName)) {
-                            OIM_JMX_BEANS mappedBean = OIM_JMX_BEANS.beanMapping.get(beanName);
-                            if (mappedBean.type == null) {
-                                logger.trace("Located Bean {} for requested bean {} with name {}", new Object[]{bean, mappedBean, beanName});
-                                beanCache.put(mappedBean, bean);
-                            } else if (mappedBean.type.equals(beanType)) {
-                                logger.trace("Located Bean {} for requested bean {} with name {} & type {}", new Object[]{bean, mappedBean, beanName, beanType});
-                                beanCache.put(mappedBean, bean);
-                            } else {
-                                logger.trace("Ignoring bean {} since type {} != {} of bean {}", new Object[]{bean, beanType, mappedBean.type, mappedBean});
-                            }
-                        }
-                        if (beanType != null && OIM_JMX_BEANS.beanTypeNames.contains(beanType)) {
-                            OIM_JMX_BEANS mappedBean = OIM_JMX_BEANS.beanTypeMapping.get(beanType);
-                            logger.trace("Located Bean {} for requested bean {} of type {}", new Object[]{bean, mappedBean, beanType});
-                            List<ObjectInstance> beanList;
-                            if (beanTypeCache.containsKey(mappedBean)) {
-                                beanList = beanTypeCache.get(mappedBean);
-                            } else {
-                                beanList = new ArrayList<>();
-                                beanTypeCache.put(mappedBean, beanList);
-                            }
-                            beanList.add(bean);
-                        }
-                    } catch (Exception exception) {
-                        throw new OIMAdminException("Failed to process bean " + bean, exception);
-                    }
-                }
-            }
-        }
-        logger.trace("Initialized Bean cache for connection {}", this);
+    private List<ObjectInstance> getBeansOfType(OIM_JMX_BEANS jmxBeans) {
+        return beanRegistry.getBeansOfType(jmxBeans);
     }
 
-    private List<ObjectInstance> getBeansOfType(OIM_JMX_BEANS jmxBeans) {
-        if (beanTypeCache.isEmpty()) {
-            initializeBeanCache();
-        }
-        if (!beanTypeCache.containsKey(jmxBeans)) {
-            Set<ObjectInstance> result = JMXUtils.getJMXBean(getConnection(), jmxBeans);
-            if (result.isEmpty()) {
-                return null;
-            } else {
-                List<ObjectInstance> resultAsList = new ArrayList<>(result);
-                beanTypeCache.put(jmxBeans, resultAsList);
-                if (result.size() == 1 && !Utils.isEmpty(jmxBeans.name)) {
-                    beanCache.put(jmxBeans, resultAsList.get(0));
-                }
-                if (Utils.isEmpty(jmxBeans.name)) {
-                    for (ObjectInstance resultItem : resultAsList) {
-                        beanCache.put(new OIM_JMX_BEANS(resultItem), resultItem);
-                    }
-                }
+    private ObjectInstance getBean(OIM_JMX_BEANS jmxBean) {
+        return beanRegistry.getBean(jmxBean);
+    }
+
+    public MBeanInfo getMBeanInfo(final ObjectName beanName) {
+        return readWithRetry(new Callable<MBeanInfo>() {
+            @Override
+            public MBeanInfo call() {
+                return metadataCache.getMBeanInfo(getConnection(), new ObjectInstance(beanName, null));
             }
-        }
-        return beanTypeCache.get(jmxBeans);
+        });
     }
 
-    private ObjectInstance getBean(OIM_JMX_BEANS jmxBean) {
-        if (beanCache.isEmpty()) {
-            initializeBeanCache();
-        }
-        if (!beanCache.containsKey(jmxBean)) {
-            Set<ObjectInstance> result = JMXUtils.getJMXBean(getConnection(), jmxBean);
-            if (result.isEmpty()) {
-                return null;
-            } else {
-                List<ObjectInstance> resultAsList = new ArrayList<>(result);
-                if (!Utils.isEmpty(jmxBean.type)) {
-                    beanTypeCache.put(jmxBean, resultAsList);
-                }
-                ObjectInstance resultValue = resultAsList.get(0);
-                beanCache.put(jmxBean, resultValue);
+    public List<String> getAttributeNames(final ObjectName beanName) {
+        return readWithRetry(new Callable<List<String>>() {
+            @Override
+            public List<String> call() {
+                return metadataCache.getAttributeNames(getConnection(), new ObjectInstance(beanName, null));
             }
-        }
-        return beanCache.get(jmxBean);
+        });
     }
 
-    public <T> T getValue(OIM_JMX_BEANS bean, String attributeName) {
+    public void addBeanRegistrationListener(BeanRegistrationListener listener) {
+        beanRegistry.addListener(listener);
+    }
+
+    public void removeBeanRegistrationListener(BeanRegistrationListener listener) {
+        beanRegistry.removeListener(listener);
+    }
+
+    public <T> T getValue(final OIM_JMX_BEANS bean, final String attributeName) {
         if (bean == null || Utils.isEmpty(attributeName)) {
             logger.info("Either bean {} or requested attribute {} is null", bean, attributeName);
             return null;
         }
-        ObjectInstance objectInstance = getBean(bean);
-        if (objectInstance == null) {
-            logger.warn("Could not locate the bean corresponding to {}", bean);
-            return null;
-        }
-        return (T) JMXUtils.getValue(getConnection(), objectInstance, attributeName);
+        return (T) readWithRetry(new Callable<Object>() {
+            @Override
+            public Object call() {
+                ObjectInstance objectInstance = getBean(bean);
+                if (objectInstance == null) {
+                    logger.warn("Could not locate the bean corresponding to {}", bean);
+                    return null;
+                }
+                return JMXUtils.getValue(getConnection(), objectInstance, attributeName);
+            }
+        });
     }
 
     public void setValue(OIM_JMX_BEANS bean, String attributeName, Object value) {
@@ -289,12 +537,18 @@ public class JMXConnection extends AbstractConnection {
             logger.info("Either bean {} or attribute to set {} is null", bean, attributeName);
             return;
         }
-        ObjectInstance objectInstance = getBean(bean);
-        if (objectInstance == null) {
-            logger.warn("Could not locate the bean corresponding to {}", bean);
-            return;
+        try {
+            ObjectInstance objectInstance = getBean(bean);
+            if (objectInstance == null) {
+                logger.warn("Could not locate the bean corresponding to {}", bean);
+                return;
+            }
+            JMXUtils.setValue(getConnection(), objectInstance, attributeName, value);
+        } catch (RuntimeException exception) {
+            // Updates are not retried, but the connection is re-established for later calls.
+            isConnectionFailure(exception);
+            throw exception;
         }
-        JMXUtils.setValue(getConnection(), objectInstance, attributeName, value);
     }
 
     public Object invoke(JMX_BEAN_METHOD method, Object... parameterValues) {
@@ -306,32 +560,250 @@ public class JMXConnection extends AbstractConnection {
             logger.info("Bean associated with method {} to invoke is null", method);
             return null;
         }
-        ObjectInstance objectInstance = getBean(method.bean);
-        if (objectInstance == null) {
-            logger.warn("Could not locate the bean corresponding to {}", method.bean);
-            return null;
+        try {
+            ObjectInstance objectInstance = getBean(method.bean);
+            if (objectInstance == null) {
+                logger.warn("Could not locate the bean corresponding to {}", method.bean);
+                return null;
+            }
+            return JMXUtils.invoke(getConnection(), objectInstance, method.methodName, method.methodParameterClass, parameterValues);
+        } catch (RuntimeException exception) {
+            // Operations may not be idempotent so they are not retried, but the connection is re-established for later calls.
+            isConnectionFailure(exception);
+            throw exception;
         }
-        return JMXUtils.invoke(getConnection(), objectInstance, method.methodName, method.methodParameterClass, parameterValues);
     }
 
     public void invoke(final OIM_JMX_BEANS bean, ProcessBeanType processBean) {
+        invoke(WORKLOAD.INTERACTIVE, bean, processBean);
+    }
+
+    public void invoke(WORKLOAD workload, final OIM_JMX_BEANS bean, ProcessBeanType processBean) {
         if (bean == null) {
             logger.info("No bean was provided for invocation of {}", processBean);
             return;
         }
-        if (bean.name == null) {
-            List<ObjectInstance> objectInstances = getBeansOfType(bean);
-            if (objectInstances != null) {
-                for (ObjectInstance objectInstance : objectInstances) {
-                    processBean.execute(new JMXUtils.ProcessingBeanImpl(getConnection(), objectInstance));
+        try {
+            for (ObjectInstance objectInstance : getObjectInstances(bean)) {
+                processBean.execute(new JMXUtils.ProcessingBeanImpl(getConnection(workload), objectInstance, metadataCache));
+            }
+        } catch (RuntimeException exception) {
+            // Processing may not be idempotent so it is not retried, but the connection is re-established for later calls.
+            isConnectionFailure(exception);
+            throw exception;
+        }
+    }
+
+    // Named beans may be deployed on every server (e.g. DMS beans), so all the instances are processed.
+    private List<ObjectInstance> getObjectInstances(OIM_JMX_BEANS bean) {
+        List<ObjectInstance> objectInstances = getBeansOfType(bean);
+        return objectInstances == null ? Collections.<ObjectInstance>emptyList() : new ArrayList<>(objectInstances);
+    }
+
+    public <T> List<T> invokeParallel(OIM_JMX_BEANS bean, ProcessBeanFunction<T> processBean) {
+        return invokeParallel(WORKLOAD.INTERACTIVE, bean, processBean);
+    }
+
+    // Beans are processed concurrently by up to parallelism threads including the calling thread. Results are returned in the order of
+    // beans and failures are reported together once all the beans have been processed.
+    public <T> List<T> invokeParallel(final WORKLOAD workload, final OIM_JMX_BEANS bean, final ProcessBeanFunction<T> processBean) {
+        if (bean == null || processBean == null) {
+            logger.info("Either bean {} or processing {} is null", bean, processBean);
+            return new ArrayList<>();
+        }
+        final List<ObjectInstance> objectInstances = getObjectInstances(bean);
+        final int beanCount = objectInstances.size();
+        final Object[] results = new Object[beanCount];
+        final RuntimeException[] failures = new RuntimeException[beanCount];
+        final AtomicInteger nextBean = new AtomicInteger();
+        final CountDownLatch pendingBeans = new CountDownLatch(beanCount);
+        Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                for (int beanIndex = nextBean.getAndIncrement(); beanIndex < beanCount; beanIndex = nextBean.getAndIncrement()) {
+                    try {
+                        results[beanIndex] = processBean.execute(new JMXUtils.ProcessingBeanImpl(getConnection(workload), objectInstances.get(beanIndex), metadataCache));
+                    } catch (RuntimeException exception) {
+                        failures[beanIndex] = exception;
+                    } finally {
+                        pendingBeans.countDown();
+                    }
                 }
             }
-        } else {
-            ObjectInstance objectInstance = getBean(bean);
-            if (objectInstance != null)
-                processBean.execute(new JMXUtils.ProcessingBeanImpl(getConnection(), objectInstance));
+        };
+        List<Future<?>> helpers = new ArrayList<>();
+        ExecutorService executor = asyncExecutor;
+        for (int counter = 1; executor != null && counter < Math.min(parallelism, beanCount); counter++) {
+            try {
+                helpers.add(executor.submit(worker));
+            } catch (RejectedExecutionException exception) {
+                logger.debug("Could not add helper for processing {}", bean);
+                break;
+            }
+        }
+        // Calling thread processes beans too so that processing completes even if all the executor threads are busy.
+        worker.run();
+        try {
+            pendingBeans.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new OIMAdminException("Interrupted while processing beans " + bean, exception);
+        } finally {
+            // Helpers that have not started yet have nothing left to process.
+            for (Future<?> helper : helpers) {
+                helper.cancel(false);
+            }
+        }
+        OIMAdminException failure = null;
+        int failureCount = 0;
+        for (RuntimeException beanFailure : failures) {
+            if (beanFailure == null)
+                continue;
+            failureCount++;
+            if (failure == null)
+                failure = new OIMAdminException("Failed to process beans " + bean, beanFailure);
+            else
+                failure.addSuppressed(beanFailure);
+        }
+        if (failure != null) {
+            logger.warn("Failed to process {} out of {} beans of {}", new Object[]{failureCount, beanCount, bean});
+            isConnectionFailure(failure);
+            throw failure;
+        }
+        List<T> orderedResults = new ArrayList<>(beanCount);
+        for (Object result : results) {
+            orderedResults.add((T) result);
         }
+        return orderedResults;
+    }
+
+    public enum WORKLOAD {
+        MONITORING, BULK, INTERACTIVE
+    }
 
+    public <T> Future<T> executeAsync(Callable<T> operation) {
+        return executeAsync(operation, asyncTimeout);
+    }
+
+    // Operation fails with TimeoutException if it does not complete within timeout (in ms) of being submitted.
+    public <T> Future<T> executeAsync(Callable<T> operation, final long timeout) {
+        if (operation == null)
+            throw new NullPointerException("No operation provided for asynchronous execution");
+        // Executors are read once since the connection may be destroyed concurrently
+        ExecutorService executor = asyncExecutor;
+        ScheduledThreadPoolExecutor timeoutExecutor = asyncTimeoutExecutor;
+        if (!isConnected || executor == null || (timeout > 0 && timeoutExecutor == null))
+            throw new OIMAdminException("The JMX Connection " + this + " is not initialized or has been destroyed");
+        final AsyncOperation<T> asyncOperation = new AsyncOperation<>(operation);
+        try {
+            executor.execute(asyncOperation);
+        } catch (RejectedExecutionException exception) {
+            throw new OIMAdminException("The JMX Connection " + this + " is being destroyed", exception);
+        }
+        if (timeout > 0) {
+            try {
+                asyncOperation.timeoutTask = timeoutExecutor.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        asyncOperation.timeout(timeout);
+                    }
+                }, timeout, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException exception) {
+                logger.debug("Timeout of operation {} was not scheduled since connection is being destroyed", operation);
+            }
+        }
+        return asyncOperation;
+    }
+
+    public <T> Future<T> getValueAsync(final OIM_JMX_BEANS bean, final String attributeName) {
+        return executeAsync(new Callable<T>() {
+            @Override
+            public T call() {
+                return getValue(bean, attributeName);
+            }
+        });
+    }
+
+    public Future<Void> setValueAsync(final OIM_JMX_BEANS bean, final String attributeName, final Object value) {
+        return executeAsync(new Callable<Void>() {
+            @Override
+            public Void call() {
+                setValue(bean, attributeName, value);
+                return null;
+            }
+        });
+    }
+
+    public Future<Object> invokeAsync(final JMX_BEAN_METHOD method, final Object... parameterValues) {
+        return executeAsync(new Callable<Object>() {
+            @Override
+            public Object call() {
+                return invoke(method, parameterValues);
+            }
+        });
+    }
+
+    // Beans are located on calling thread and each of them is then processed asynchronously.
+    public <T> List<Future<T>> forEachBeanAsync(final OIM_JMX_BEANS bean, final ProcessBeanFunction<T> processBean) {
+        List<Future<T>> results = new ArrayList<>();
+        if (bean == null || processBean == null) {
+            logger.info("Either bean {} or processing {} is null", bean, processBean);
+            return results;
+        }
+        for (final ObjectInstance objectInstance : getObjectInstances(bean)) {
+            results.add(executeAsync(new Callable<T>() {
+                @Override
+                public T call() {
+                    return processBean.execute(new JMXUtils.ProcessingBeanImpl(getConnection(), objectInstance, metadataCache));
+                }
+            }));
+        }
+        return results;
+    }
+
+    private static class AsyncOperation<T> extends FutureTask<T> {
+        private final Callable<T> operation;
+        private volatile Thread runner;
+        private volatile ScheduledFuture<?> timeoutTask;
+
+        AsyncOperation(Callable<T> operation) {
+            super(operation);
+            this.operation = operation;
+        }
+
+        @Override
+        public void run() {
+            runner = Thread.currentThread();
+            try {
+                super.run();
+            } finally {
+                runner = null;
+            }
+        }
+
+        void timeout(long timeout) {
+            if (isDone())
+                return;
+            logger.warn("Operation {} did not complete in {} ms", operation, timeout);
+            setException(new TimeoutException("Operation " + operation + " did not complete in " + timeout + " ms"));
+            Thread runningThread = runner;
+            if (runningThread != null)
+                runningThread.interrupt();
+        }
+
+        @Override
+        protected void done() {
+            ScheduledFuture<?> scheduledTimeout = timeoutTask;
+            if (scheduledTimeout != null)
+                scheduledTimeout.cancel(false);
+        }
+    }
+
+    public interface BeanRegistrationListener {
+
+        void registered(ObjectName beanName);
+
+        void unregistered(ObjectName beanName);
     }
 
     public interface ProcessBeanType {
@@ -339,6 +811,11 @@ public class JMXConnection extends AbstractConnection {
         void execute(ProcessingBean bean);
     }
 
+    public interface ProcessBeanFunction<T> {
+
+        T execute(ProcessingBean bean);
+    }
+
     public interface ProcessingBean {
         OIM_JMX_BEANS getBean();
 
@@ -346,8 +823,12 @@ public class JMXConnection extends AbstractConnection {
 
         List<String> getAttributeNames();
 
+        MBeanInfo getMBeanInfo();
+
         Object getValue(String attributeName);
 
+        Map<String, Object> getValues(String... attributeNames);
+
         void setValue(String attributeName, Object value);
 
         Object invoke(JMX_BEAN_METHOD method, Object... parameterValues);
@@ -355,10 +836,10 @@ public class JMXConnection extends AbstractConnection {
 
     public static class OIM_JMX_BEANS {
 
-        private static final Set<String> beanNames = new HashSet<>();
-        private static final Set<String> beanTypeNames = new HashSet<>();
-        private static final Map<String, OIM_JMX_BEANS> beanMapping = new HashMap<>();
-        private static final Map<String, OIM_JMX_BEANS> beanTypeMapping = new HashMap<>();
+        static final Set<String> beanNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        static final Set<String> beanTypeNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        static final Map<String, OIM_JMX_BEANS> beanMapping = new ConcurrentHashMap<>();
+        static final Map<String, OIM_JMX_BEANS> beanTypeMapping = new ConcurrentHashMap<>();
 
         public final String name;
         public final String type;
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.oim;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServerConnection;
+import javax.management.Notification;
+import javax.management.NotificationListener;
+import javax.management.remote.JMXConnectionNotification;
+import javax.management.remote.JMXConnector;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class JMXConnectorPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(JMXConnectorPool.class);
+    private final Map<JMXConnection.WORKLOAD, List<PooledConnector>> pools = new EnumMap<>(JMXConnection.WORKLOAD.class);
+    private final Map<JMXConnection.WORKLOAD, AtomicInteger> nextConnector = new EnumMap<>(JMXConnection.WORKLOAD.class);
+    private final JMXConnection jmxConnection;
+    private final Callable<JMXConnector> connectorFactory;
+    private final long healthCheckInterval;
+    private volatile boolean closed = false;
+
+    JMXConnectorPool(JMXConnection jmxConnection, Callable<JMXConnector> connectorFactory, Map<JMXConnection.WORKLOAD, Integer> poolSizes,
+                     long healthCheckInterval) {
+        this.jmxConnection = jmxConnection;
+        this.connectorFactory = connectorFactory;
+        this.healthCheckInterval = healthCheckInterval;
+        for (Map.Entry<JMXConnection.WORKLOAD, Integer> poolSize : poolSizes.entrySet()) {
+            if (poolSize.getValue() == null || poolSize.getValue() <= 0)
+                continue;
+            List<PooledConnector> pool = new ArrayList<>(poolSize.getValue());
+            for (int counter = 0; counter < poolSize.getValue(); counter++) {
+                pool.add(new PooledConnector(poolSize.getKey() + "-" + counter));
+            }
+            pools.put(poolSize.getKey(), Collections.unmodifiableList(pool));
+            nextConnector.put(poolSize.getKey(), new AtomicInteger());
+            logger.debug("Configured {} pooled JMX connectors for {} workload of {}", new Object[]{pool.size(), poolSize.getKey(), jmxConnection});
+        }
+    }
+
+    // Returns null if the workload is not pooled or no pooled connector could be established so that the caller can use the primary connection.
+    MBeanServerConnection getConnection(JMXConnection.WORKLOAD workload) {
+        List<PooledConnector> pool = pools.get(workload);
+        if (pool == null || closed)
+            return null;
+        int start = (nextConnector.get(workload).getAndIncrement() & Integer.MAX_VALUE) % pool.size();
+        for (int counter = 0; counter < pool.size(); counter++) {
+            MBeanServerConnection connection = pool.get((start + counter) % pool.size()).lease();
+            if (connection != null)
+                return connection;
+        }
+        logger.warn("None of the pooled JMX connectors for {} workload of {} are available. Using primary connection.", workload, jmxConnection);
+        return null;
+    }
+
+    void close() {
+        closed = true;
+        for (List<PooledConnector> pool : pools.values()) {
+            for (PooledConnector pooledConnector : pool) {
+                pooledConnector.close();
+            }
+        }
+    }
+
+    private class PooledConnector implements NotificationListener {
+        private final String label;
+        private JMXConnector connector;
+        private MBeanServerConnection connection;
+        private volatile boolean failed = false;
+        private long lastVerified = 0;
+
+        PooledConnector(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (JMXConnectionNotification.FAILED.equals(notification.getType()) || JMXConnectionNotification.CLOSED.equals(notification.getType())) {
+                logger.debug("Pooled JMX connector {} of {} reported {}", new Object[]{label, jmxConnection, notification.getType()});
+                failed = true;
+            }
+        }
+
+        synchronized MBeanServerConnection lease() {
+            if (closed)
+                return null;
+            if (connection != null && !failed) {
+                long now = System.currentTimeMillis();
+                if (now - lastVerified < healthCheckInterval)
+                    return connection;
+                try {
+                    connection.getMBeanCount();
+                    lastVerified = now;
+                    return connection;
+                } catch (Exception exception) {
+                    logger.warn("Health check of pooled JMX connector " + label + " of " + jmxConnection + " failed. Reconnecting.", exception);
+                }
+            }
+            close();
+            try {
+                logger.debug("Trying to create pooled JMX connector {} of {}", label, jmxConnection);
+                connector = connectorFactory.call();
+                connector.addConnectionNotificationListener(this, null, null);
+                connection = connector.getMBeanServerConnection();
+                failed = false;
+                lastVerified = System.currentTimeMillis();
+                logger.debug("Created pooled JMX connector {} with connection id {}", label, connector.getConnectionId());
+                return connection;
+            } catch (Exception exception) {
+                logger.warn("Failed to create pooled JMX connector " + label + " of " + jmxConnection, exception);
+                close();
+                return null;
+            }
+        }
+
+        synchronized void close() {
+            if (connector != null) {
+                try {
+                    connector.removeConnectionNotificationListener(this);
+                } catch (Exception exception) {
+                    logger.trace("Failed to remove connection listener from pooled JMX connector " + label, exception);
+                }
+                try {
+                    connector.close();
+                } catch (Exception exception) {
+                    logger.debug("Failed to close pooled JMX connector " + label + " of " + jmxConnection + ". Ignoring the error", exception);
+                }
+            }
+            connector = null;
+            connection = null;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.oim;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+class JMXMetadataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(JMXMetadataCache.class);
+    private final ConcurrentMap<ObjectName, BeanMetadata> metadataCache = new ConcurrentHashMap<>();
+
+    private BeanMetadata getMetadata(MBeanServerConnection connection, ObjectInstance objectInstance) {
+        if (connection == null || objectInstance == null)
+            return null;
+        ObjectName beanName = objectInstance.getObjectName();
+        BeanMetadata metadata = metadataCache.get(beanName);
+        if (metadata == null) {
+            MBeanInfo beanInfo = JMXUtils.getMBeanInfo(connection, objectInstance);
+            // Missing beans are not cached so that they are located once registered.
+            if (beanInfo == null)
+                return null;
+            metadata = new BeanMetadata(beanInfo, JMXUtils.getAttributeNames(beanInfo, objectInstance));
+            BeanMetadata existingMetadata = metadataCache.putIfAbsent(beanName, metadata);
+            if (existingMetadata != null)
+                metadata = existingMetadata;
+        } else {
+            logger.trace("Using cached metadata of bean {}", beanName);
+        }
+        return metadata;
+    }
+
+    MBeanInfo getMBeanInfo(MBeanServerConnection connection, ObjectInstance objectInstance) {
+        BeanMetadata metadata = getMetadata(connection, objectInstance);
+        return metadata == null ? null : metadata.beanInfo;
+    }
+
+    List<String> getAttributeNames(MBeanServerConnection connection, ObjectInstance objectInstance) {
+        BeanMetadata metadata = getMetadata(connection, objectInstance);
+        return metadata == null ? null : new ArrayList<>(metadata.attributeNames);
+    }
+
+    void invalidate(ObjectName beanName) {
+        if (beanName != null && metadataCache.remove(beanName) != null)
+            logger.trace("Removed cached metadata of bean {}", beanName);
+    }
+
+    void clear() {
+        metadataCache.clear();
+    }
+
+    private static class BeanMetadata {
+        final MBeanInfo beanInfo;
+        final List<String> attributeNames;
+
+        BeanMetadata(MBeanInfo beanInfo, List<String> attributeNames) {
+            this.beanInfo = beanInfo;
+            this.attributeNames = Collections.unmodifiableList(attributeNames);
+        }
+    }
+}
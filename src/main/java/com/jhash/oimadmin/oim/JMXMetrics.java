@@ -0,0 +1,265 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.oim;
+
+import com.jhash.oimadmin.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class JMXMetrics {
+
+    public static final String METRICS_MBEAN_NAME = "com.jhash.oimadmin:type=JMXMetrics";
+    public static final String OPERATION_QUERY = "queryMBeans";
+    public static final String OPERATION_QUERY_NAMES = "queryNames";
+    public static final String OPERATION_GET_MBEAN_INFO = "getMBeanInfo";
+    public static final String OPERATION_GET_ATTRIBUTE = "getAttribute";
+    public static final String OPERATION_GET_ATTRIBUTES = "getAttributes";
+    public static final String OPERATION_SET_ATTRIBUTE = "setAttribute";
+    public static final String OPERATION_INVOKE = "invoke";
+    public static final String OTHER_BEANS = "<other>";
+    public static final int MAX_TRACKED_OPERATIONS = 256;
+    public static final String[] COLUMNS = new String[]{"Bean", "Operation", "Calls", "Errors", "Average (us)", "50% (us)", "95% (us)", "99% (us)", "Maximum (us)"};
+
+    private static final Logger logger = LoggerFactory.getLogger(JMXMetrics.class);
+    private static final ConcurrentMap<String, OperationMetrics> operationMetrics = new ConcurrentHashMap<>();
+    private static final AtomicBoolean registered = new AtomicBoolean(false);
+
+    public static void register() {
+        if (!registered.compareAndSet(false, true))
+            return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(new JMXMetricsBean(), JMXMetricsMXBean.class, true),
+                    new ObjectName(METRICS_MBEAN_NAME));
+            logger.debug("Registered JMX metrics as {}", METRICS_MBEAN_NAME);
+        } catch (InstanceAlreadyExistsException exception) {
+            logger.debug("JMX metrics bean {} is already registered", METRICS_MBEAN_NAME);
+        } catch (Exception exception) {
+            logger.warn("Failed to register JMX metrics as " + METRICS_MBEAN_NAME + ". Metrics will only be available in tool.", exception);
+        }
+    }
+
+    public static void record(ObjectName beanName, String operation, long startTime, boolean success) {
+        record(getBeanLabel(beanName), operation, startTime, success);
+    }
+
+    // Start time must be obtained using System.nanoTime()
+    public static void record(String bean, String operation, long startTime, boolean success) {
+        long duration = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime);
+        String key = bean + "|" + operation;
+        OperationMetrics metrics = operationMetrics.get(key);
+        if (metrics == null && operationMetrics.size() >= MAX_TRACKED_OPERATIONS) {
+            // Number of histograms is bounded, calls beyond that are reported together per operation.
+            bean = OTHER_BEANS;
+            key = bean + "|" + operation;
+            metrics = operationMetrics.get(key);
+        }
+        if (metrics == null) {
+            metrics = new OperationMetrics(bean, operation);
+            OperationMetrics existingMetrics = operationMetrics.putIfAbsent(key, metrics);
+            if (existingMetrics != null)
+                metrics = existingMetrics;
+        }
+        metrics.calls.incrementAndGet();
+        if (!success)
+            metrics.errors.incrementAndGet();
+        metrics.totalTime.addAndGet(duration);
+        metrics.latency.record(duration);
+    }
+
+    // Beans are aggregated by type (e.g. all the DMS performance beans of a type are reported together) and identified by name
+    // only if they do not have a type, so that number of metrics does not grow with the number of beans.
+    private static String getBeanLabel(ObjectName beanName) {
+        if (beanName == null)
+            return "";
+        String type = beanName.getKeyProperty("type");
+        if (type == null)
+            type = beanName.getKeyProperty("Type");
+        if (type != null)
+            return beanName.getDomain() + ":type=" + type;
+        String name = beanName.getKeyProperty("name");
+        if (name == null)
+            name = beanName.getKeyProperty("Name");
+        if (name != null)
+            return beanName.getDomain() + ":name=" + name;
+        return beanName.getCanonicalName();
+    }
+
+    public static List<Statistics> getStatistics() {
+        List<Statistics> statistics = new ArrayList<>();
+        for (OperationMetrics metrics : operationMetrics.values()) {
+            statistics.add(new Statistics(metrics));
+        }
+        Collections.sort(statistics, new Comparator<Statistics>() {
+            @Override
+            public int compare(Statistics o1, Statistics o2) {
+                return Long.compare(o2.totalTime, o1.totalTime);
+            }
+        });
+        return statistics;
+    }
+
+    public static Details getDetails() {
+        List<Object[]> details = new ArrayList<>();
+        for (Statistics statistics : getStatistics()) {
+            details.add(new Object[]{statistics.bean, statistics.operation, statistics.calls, statistics.errors, statistics.getAverage(),
+                    statistics.percentile50, statistics.percentile95, statistics.percentile99, statistics.maximum});
+        }
+        return new Details(COLUMNS, details);
+    }
+
+    public static void reset() {
+        operationMetrics.clear();
+    }
+
+    public interface JMXMetricsMXBean {
+
+        long getTotalCalls();
+
+        long getTotalErrors();
+
+        List<Statistics> getStatistics();
+
+        void reset();
+    }
+
+    private static class OperationMetrics {
+        final String bean;
+        final String operation;
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong totalTime = new AtomicLong();
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        OperationMetrics(String bean, String operation) {
+            this.bean = bean;
+            this.operation = operation;
+        }
+    }
+
+    public static class Statistics {
+        private final String bean;
+        private final String operation;
+        private final long calls;
+        private final long errors;
+        private final long totalTime;
+        private final long percentile50;
+        private final long percentile95;
+        private final long percentile99;
+        private final long maximum;
+
+        Statistics(OperationMetrics metrics) {
+            LatencyHistogram latency = metrics.latency.copy();
+            this.bean = metrics.bean;
+            this.operation = metrics.operation;
+            this.calls = metrics.calls.get();
+            this.errors = metrics.errors.get();
+            this.totalTime = metrics.totalTime.get();
+            this.percentile50 = latency.getPercentile(50);
+            this.percentile95 = latency.getPercentile(95);
+            this.percentile99 = latency.getPercentile(99);
+            this.maximum = latency.getMaximum();
+        }
+
+        public String getBean() {
+            return bean;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getTotalTime() {
+            return totalTime;
+        }
+
+        public long getAverage() {
+            return calls == 0 ? 0 : totalTime / calls;
+        }
+
+        public long getPercentile50() {
+            return percentile50;
+        }
+
+        public long getPercentile95() {
+            return percentile95;
+        }
+
+        public long getPercentile99() {
+            return percentile99;
+        }
+
+        public long getMaximum() {
+            return maximum;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics [bean=" + bean + ", operation=" + operation + ", calls=" + calls + ", errors=" + errors + ", average=" + getAverage()
+                    + ", p95=" + percentile95 + "]";
+        }
+    }
+
+    private static class JMXMetricsBean implements JMXMetricsMXBean {
+
+        @Override
+        public long getTotalCalls() {
+            long totalCalls = 0;
+            for (OperationMetrics metrics : operationMetrics.values()) {
+                totalCalls += metrics.calls.get();
+            }
+            return totalCalls;
+        }
+
+        @Override
+        public long getTotalErrors() {
+            long totalErrors = 0;
+            for (OperationMetrics metrics : operationMetrics.values()) {
+                totalErrors += metrics.errors.get();
+            }
+            return totalErrors;
+        }
+
+        @Override
+        public List<Statistics> getStatistics() {
+            return JMXMetrics.getStatistics();
+        }
+
+        @Override
+        public void reset() {
+            JMXMetrics.reset();
+        }
+    }
+}
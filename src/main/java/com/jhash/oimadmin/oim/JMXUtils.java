@@ -33,19 +33,18 @@ public class JMXUtils {
 
     public static Set<ObjectInstance> getJMXBean(MBeanServerConnection connection, JMXConnection.OIM_JMX_BEANS jmxBeans) {
         logger.trace("Trying to locate beans for {}", jmxBeans);
+        long startTime = System.nanoTime();
+        boolean success = false;
         try {
             StringBuilder expression = new StringBuilder();
             if (jmxBeans.nameSpace != null)
                 expression.append(jmxBeans.nameSpace);
             else
                 expression.append("*");
-            expression.append(":type=");
+            expression.append(":");
             if (jmxBeans.type != null) {
-                expression.append(jmxBeans.type);
-            } else {
-                expression.append("*");
+                expression.append("type=").append(jmxBeans.type).append(",");
             }
-            expression.append(",");
             if (jmxBeans.name != null) {
                 expression.append("name=").append(jmxBeans.name).append(",");
             }
@@ -53,10 +52,13 @@ public class JMXUtils {
             String expressionValue = expression.toString();
             logger.trace("Query expression {}", expressionValue);
             Set<ObjectInstance> jmxBeanObjectInstances = connection.queryMBeans(new ObjectName(expressionValue), null);
+            success = true;
             logger.trace("Returning search result {}", jmxBeanObjectInstances);
             return jmxBeanObjectInstances;
         } catch (Exception exception) {
             throw new OIMAdminException("Failed to get JMX Bean for " + jmxBeans, exception);
+        } finally {
+            JMXMetrics.record(jmxBeans.toString(), JMXMetrics.OPERATION_QUERY, startTime, success);
         }
     }
 
@@ -79,39 +81,56 @@ public class JMXUtils {
     public static List<String> getAttributeNames(MBeanServerConnection connection, ObjectInstance objectInstance) {
         if (connection == null || objectInstance == null)
             return null;
-        logger.debug("Trying to get attribute names for bean {}", objectInstance);
-        List<String> attributeNames = new ArrayList<>();
+        MBeanInfo beanInfo = getMBeanInfo(connection, objectInstance);
+        if (beanInfo == null)
+            return null;
+        return getAttributeNames(beanInfo, objectInstance);
+    }
+
+    public static MBeanInfo getMBeanInfo(MBeanServerConnection connection, ObjectInstance objectInstance) {
+        logger.debug("Trying to get bean information for bean {}", objectInstance);
+        long startTime = System.nanoTime();
+        boolean success = false;
         try {
             MBeanInfo beanInfo = connection.getMBeanInfo(objectInstance.getObjectName());
-            if (beanInfo != null) {
-                MBeanAttributeInfo[] beanAttributesInfo = beanInfo.getAttributes();
-                if (beanAttributesInfo != null && beanAttributesInfo.length > 0){
-                    for (MBeanAttributeInfo beanAttributeInfo : beanAttributesInfo) {
-                        if (beanAttributeInfo != null) {
-                            attributeNames.add(beanAttributeInfo.getName());
-                        } else {
-                            logger.debug("Located null attribute info while processing attribute info for bean {}", objectInstance);
-                        }
-                    }
-                } else {
-                    logger.debug("No attributes could be retrieved for bean {}", objectInstance);
-                }
-            } else {
+            success = true;
+            if (beanInfo == null)
                 logger.warn("Could not locate bean information for bean {}", objectInstance);
-            }
+            return beanInfo;
         } catch (InstanceNotFoundException exception) {
             logger.warn("Could not locate the bean {}", new Object[]{objectInstance});
             return null;
         } catch (Exception exception) {
             throw new OIMAdminException("Failed to get name of the attributes of bean " + objectInstance, exception);
+        } finally {
+            JMXMetrics.record(objectInstance.getObjectName(), JMXMetrics.OPERATION_GET_MBEAN_INFO, startTime, success);
+        }
+    }
+
+    static List<String> getAttributeNames(MBeanInfo beanInfo, ObjectInstance objectInstance) {
+        List<String> attributeNames = new ArrayList<>();
+        MBeanAttributeInfo[] beanAttributesInfo = beanInfo.getAttributes();
+        if (beanAttributesInfo != null && beanAttributesInfo.length > 0) {
+            for (MBeanAttributeInfo beanAttributeInfo : beanAttributesInfo) {
+                if (beanAttributeInfo != null) {
+                    attributeNames.add(beanAttributeInfo.getName());
+                } else {
+                    logger.debug("Located null attribute info while processing attribute info for bean {}", objectInstance);
+                }
+            }
+        } else {
+            logger.debug("No attributes could be retrieved for bean {}", objectInstance);
         }
         logger.debug("Retrieved attribute names as {}", attributeNames);
         return attributeNames;
     }
 
     public static Object getValue(MBeanServerConnection connection, ObjectInstance objectInstance, String attributeName) {
+        long startTime = System.nanoTime();
+        boolean success = false;
         try {
             Object returnValue = connection.getAttribute(objectInstance.getObjectName(), attributeName);
+            success = true;
             logger.trace("Returning value {} corresponding to attribute {} of bean {}", new Object[]{returnValue, attributeName, objectInstance});
             return returnValue;
         } catch (AttributeNotFoundException exception) {
@@ -119,24 +138,63 @@ public class JMXUtils {
             return null;
         } catch (Exception exception) {
             throw new OIMAdminException("Failed to get attribute " + attributeName + " from bean " + objectInstance, exception);
+        } finally {
+            JMXMetrics.record(objectInstance.getObjectName(), JMXMetrics.OPERATION_GET_ATTRIBUTE, startTime, success);
+        }
+    }
+
+    public static Map<String, Object> getValues(MBeanServerConnection connection, ObjectInstance objectInstance, String... attributeNames) {
+        Map<String, Object> returnValues = new HashMap<>();
+        if (attributeNames == null || attributeNames.length == 0)
+            return returnValues;
+        long startTime = System.nanoTime();
+        boolean success = false;
+        try {
+            AttributeList attributes = connection.getAttributes(objectInstance.getObjectName(), attributeNames);
+            success = true;
+            if (attributes != null) {
+                for (Attribute attribute : attributes.asList()) {
+                    returnValues.put(attribute.getName(), attribute.getValue());
+                }
+            }
+            if (returnValues.size() != attributeNames.length) {
+                logger.debug("Could only locate attributes {} out of requested {} in bean {}", new Object[]{returnValues.keySet(), attributeNames, objectInstance});
+            }
+            logger.trace("Returning values {} corresponding to attributes {} of bean {}", new Object[]{returnValues, attributeNames, objectInstance});
+            return returnValues;
+        } catch (Exception exception) {
+            throw new OIMAdminException("Failed to get attributes " + Arrays.toString(attributeNames) + " from bean " + objectInstance, exception);
+        } finally {
+            JMXMetrics.record(objectInstance.getObjectName(), JMXMetrics.OPERATION_GET_ATTRIBUTES, startTime, success);
         }
     }
 
     public static void setValue(MBeanServerConnection connection, ObjectInstance objectInstance, String attributeName, Object value) {
+        long startTime = System.nanoTime();
+        boolean success = false;
         try {
             connection.setAttribute(objectInstance.getObjectName(), new Attribute(attributeName, value));
+            success = true;
         } catch (Exception exception) {
             throw new OIMAdminException("Failed to set attribute " + attributeName + " to " + value + " on bean " + objectInstance, exception);
+        } finally {
+            JMXMetrics.record(objectInstance.getObjectName(), JMXMetrics.OPERATION_SET_ATTRIBUTE, startTime, success);
         }
     }
 
     public static Object invoke(MBeanServerConnection connection, ObjectInstance objectInstance, String methodName, String[] parametersType, Object... parameterValues) {
         if (parameterValues == null)
             parameterValues = new Object[]{};
+        long startTime = System.nanoTime();
+        boolean success = false;
         try {
-            return connection.invoke(objectInstance.getObjectName(), methodName, parameterValues, parametersType);
+            Object returnValue = connection.invoke(objectInstance.getObjectName(), methodName, parameterValues, parametersType);
+            success = true;
+            return returnValue;
         } catch (Exception exception) {
             throw new OIMAdminException("Failed to invoke method " + methodName + " on bean " + objectInstance, exception);
+        } finally {
+            JMXMetrics.record(objectInstance.getObjectName(), JMXMetrics.OPERATION_INVOKE + " " + methodName, startTime, success);
         }
     }
 
@@ -212,11 +270,13 @@ public class JMXUtils {
         private final MBeanServerConnection serverConnection;
         private final ObjectInstance objectInstance;
         private final JMXConnection.OIM_JMX_BEANS bean;
+        private final JMXMetadataCache metadataCache;
 
-        public ProcessingBeanImpl(MBeanServerConnection connection, ObjectInstance objectInstance) {
+        public ProcessingBeanImpl(MBeanServerConnection connection, ObjectInstance objectInstance, JMXMetadataCache metadataCache) {
             this.serverConnection = connection;
             this.objectInstance = objectInstance;
             this.bean = new JMXConnection.OIM_JMX_BEANS(objectInstance);
+            this.metadataCache = metadataCache;
         }
 
         @Override
@@ -233,7 +293,14 @@ public class JMXUtils {
         public List<String> getAttributeNames() {
             if (objectInstance == null)
                 return null;
-            return JMXUtils.getAttributeNames(serverConnection, objectInstance);
+            return metadataCache.getAttributeNames(serverConnection, objectInstance);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            if (objectInstance == null)
+                return null;
+            return metadataCache.getMBeanInfo(serverConnection, objectInstance);
         }
 
         @Override
@@ -243,6 +310,13 @@ public class JMXUtils {
             return JMXUtils.getValue(serverConnection, objectInstance, attributeName);
         }
 
+        @Override
+        public Map<String, Object> getValues(String... attributeNames) {
+            if (objectInstance == null)
+                return null;
+            return JMXUtils.getValues(serverConnection, objectInstance, attributeNames);
+        }
+
         @Override
         public void setValue(String attributeName, Object value) {
             if (objectInstance == null)
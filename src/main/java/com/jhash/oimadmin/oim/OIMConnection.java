@@ -32,6 +32,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -59,6 +61,7 @@ public class OIMConnection extends AbstractConnection {
     private Object oimClient = null;
     private Config.OIM_VERSION version = null;
     private String loginUser = null;
+    private volatile KernelService kernelService = null;
 
     public OIMConnection() {
         STRING_REPRESENTATION = "OIMConnection:";
@@ -353,28 +356,62 @@ public class OIMConnection extends AbstractConnection {
     public <T> T executeOrchestrationOperation(String method, Class[] parameterTypes, Object[] parameters) {
         if (!isLogin)
             throw new IllegalStateException("The OIM Connection " + this + " is not in a login state");
+        KernelService kernelService = null;
         try {
-            Object kernelService = getService("com.thortech.xl.systemverification.api.DDKernelService");
-            logger.trace("Trying to invoke method {} with parameters {} on DDKernelService {}", new Object[]{method, parameters, kernelService});
+            kernelService = getKernelService();
+            logger.trace("Trying to invoke method {} with parameters {} on DDKernelService {}", new Object[]{method, parameters, kernelService.service});
             ClassLoader currentClassLoader = Thread.currentThread().getContextClassLoader();
             try {
                 Thread.currentThread().setContextClassLoader(getClassLoader());
-                Object result = kernelService.getClass().getMethod("invoke", String.class, Object[].class, Class[].class).invoke(kernelService, method, parameters, parameterTypes);
+                Object result = kernelService.invokeMethod.invoke(kernelService.service, method, parameters, parameterTypes);
                 logger.trace("Returned result {}", result);
                 return (T) result;
             } finally {
                 Thread.currentThread().setContextClassLoader(currentClassLoader);
             }
         } catch (Exception exception) {
+            // The service may have become stale (e.g. server restart) and hence is located again on next invocation. Failures
+            // reported by the operation itself do not invalidate it.
+            if (kernelService != null && this.kernelService == kernelService && isServiceFailure(exception)) {
+                logger.debug("Discarding DDKernelService {} after failure to invoke method {}", kernelService.service, method);
+                this.kernelService = null;
+            }
             throw new OIMAdminException("Error occurred while invoking method " + method + " on DDKernelService with parameters " + Arrays.toString(parameters), exception);
         }
     }
 
+    // Lookup and reflection failures are always treated as service failures while failures thrown by the service are
+    // treated as such only if caused by remote communication failure (e.g. RemoteException, NoSuchEJBException).
+    private static boolean isServiceFailure(Exception exception) {
+        if (!(exception instanceof InvocationTargetException))
+            return true;
+        for (Throwable cause = exception.getCause(); cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof IOException || cause.getClass().getName().endsWith("NoSuchEJBException"))
+                return true;
+        }
+        return false;
+    }
+
+    // Locating the service and its invoke method is repeated for every orchestration operation otherwise, which adds up
+    // for bulk operations.
+    private KernelService getKernelService() throws NoSuchMethodException {
+        KernelService currentKernelService = kernelService;
+        if (currentKernelService == null) {
+            Object service = getService("com.thortech.xl.systemverification.api.DDKernelService");
+            currentKernelService = new KernelService(service, service.getClass().getMethod("invoke", String.class, Object[].class, Class[].class));
+            kernelService = currentKernelService;
+        }
+        return currentKernelService;
+    }
+
     public PublicProcessImpl getOrchestration(byte[] orchestrationObject) {
+        return new PublicProcessImpl(readOrchestration(orchestrationObject), getClassLoader());
+    }
+
+    public Object readOrchestration(byte[] orchestrationObject) {
         ObjectInputStream ins = null;
         try {
-            Object readObject = Utils.getObjectInputStream(new GZIPInputStream(new ByteArrayInputStream(orchestrationObject)), getClassLoader()).readObject();
-            return new PublicProcessImpl(readObject, getClassLoader());
+            return Utils.getObjectInputStream(new GZIPInputStream(new ByteArrayInputStream(orchestrationObject)), getClassLoader()).readObject();
         } catch (Exception e) {
             throw new OIMAdminException("Failed to read process object from Blob " + orchestrationObject, e);
         } finally {
@@ -449,6 +486,7 @@ public class OIMConnection extends AbstractConnection {
 
     private void logout(Object oimClient) {
         isLogin = false;
+        kernelService = null;
         if (oimClient != null) {
             try {
                 logger.debug("Trying to perform logout");
@@ -480,6 +518,16 @@ public class OIMConnection extends AbstractConnection {
         logger.debug("Destroyed connection {}", this);
     }
 
+    private static class KernelService {
+        final Object service;
+        final Method invokeMethod;
+
+        KernelService(Object service, Method invokeMethod) {
+            this.service = service;
+            this.invokeMethod = invokeMethod;
+        }
+    }
+
     public static class OrchestrationFailedEventResponse {
 
         public OrchestrationFailedEventResponse[] values() {
@@ -22,10 +22,10 @@ import com.jhash.oimadmin.oim.JMXConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class CacheManager {
 
@@ -159,13 +159,44 @@ public class CacheManager {
         }
     }
 
+    public Map<OIM_CACHE_ATTRS, Object> getCacheDetails(OIM_CACHE_ATTRS... attributesRequested) {
+        logger.debug("Trying to get OIM Cache Details {}", attributesRequested);
+        Map<OIM_CACHE_ATTRS, Future<Object>> pendingCacheDetails = new EnumMap<>(OIM_CACHE_ATTRS.class);
+        for (final OIM_CACHE_ATTRS attributeRequested : attributesRequested) {
+            pendingCacheDetails.put(attributeRequested, connection.executeAsync(new Callable<Object>() {
+                @Override
+                public Object call() {
+                    return getCacheDetails(attributeRequested);
+                }
+            }));
+        }
+        Map<OIM_CACHE_ATTRS, Object> cacheDetails = new EnumMap<>(OIM_CACHE_ATTRS.class);
+        for (Map.Entry<OIM_CACHE_ATTRS, Future<Object>> pendingCacheDetail : pendingCacheDetails.entrySet()) {
+            cacheDetails.put(pendingCacheDetail.getKey(), getResult(pendingCacheDetail.getValue(), "attribute " + pendingCacheDetail.getKey()));
+        }
+        return cacheDetails;
+    }
+
+    private static <T> T getResult(Future<T> result, String description) {
+        try {
+            return result.get();
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException)
+                throw (RuntimeException) exception.getCause();
+            throw new OIMAdminException("Failed to get " + description + " of cache", exception);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new OIMAdminException("Interrupted while getting " + description + " of cache", exception);
+        }
+    }
+
     public Details getCacheCategories() {
         try {
             logger.debug("Trying to locate cache categories...");
-            final List<Map<String, Object>> categoryDetails = new ArrayList<>();
-            connection.invoke(CACHE_CATEGORIES, new JMXConnection.ProcessBeanType() {
+            // Each category needs multiple remote calls, so categories are read concurrently.
+            List<Map<String, Object>> categoryDetails = connection.invokeParallel(CACHE_CATEGORIES, new JMXConnection.ProcessBeanFunction<Map<String, Object>>() {
                 @Override
-                public void execute(JMXConnection.ProcessingBean bean) {
+                public Map<String, Object> execute(JMXConnection.ProcessingBean bean) {
                     Map<String, Object> categoryDetail = new HashMap<>();
                     String name = (String) bean.getValue("Name");
                     categoryDetail.put("Name", name);
@@ -174,8 +205,8 @@ public class CacheManager {
                     int expirationTime = (Integer) bean.getValue("ExpirationTime");
                     categoryDetail.put("Expires in", expirationTime);
                     categoryDetail.put("BEAN", bean.getBean());
-                    categoryDetails.add(categoryDetail);
-                    logger.trace("Added cache detail {}", categoryDetail);
+                    logger.trace("Read cache detail {}", categoryDetail);
+                    return categoryDetail;
                 }
             });
             logger.debug("Located cache details {}", categoryDetails);
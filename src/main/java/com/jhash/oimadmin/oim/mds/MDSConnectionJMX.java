@@ -67,7 +67,7 @@ public class MDSConnectionJMX extends AbstractConnection {
         logger.debug("Trying to get all MDS Partitions...");
         Set<MDSPartition> partitions = new HashSet<MDSPartition>();
         logger.debug("Trying to get MBeanServerConnection");
-        MBeanServerConnection connection = jmxConnection.getConnection();
+        MBeanServerConnection connection = jmxConnection.getConnection(JMXConnection.WORKLOAD.BULK);
         logger.debug("Trying to get all the servers running at the moment from {}", jmxConnection);
         Set<String> runtimeServers = WLUtils.getRuntimeServers(connection);
         logger.debug("Trying to process runtimeServers {}", runtimeServers);
@@ -99,7 +99,7 @@ public class MDSConnectionJMX extends AbstractConnection {
         if (!isConnected)
             throw new IllegalStateException("MDS Connection has not been initialized yet. Please initialize");
         logger.debug("Trying to get MBeanServerConnection from JMX Connector {}", jmxConnection);
-        MBeanServerConnection serverConnection = jmxConnection.getConnection();
+        MBeanServerConnection serverConnection = jmxConnection.getConnection(JMXConnection.WORKLOAD.BULK);
         logger.debug("Trying to create new MetadataTransferManager with MBeanServerConnection {} and platform {}",
                 serverConnection, platform);
         MetadataTransferManager mdsTransfer = new MetadataTransferManager(serverConnection, platform);
@@ -135,7 +135,7 @@ public class MDSConnectionJMX extends AbstractConnection {
         if (!isConnected)
             throw new IllegalStateException("MDS Connection has not been initialized yet. Please initialize");
         logger.debug("Trying to get MBeanServerConnection from JMX Connector {}", jmxConnection);
-        MBeanServerConnection serverConnection = jmxConnection.getConnection();
+        MBeanServerConnection serverConnection = jmxConnection.getConnection(JMXConnection.WORKLOAD.BULK);
         logger.debug("Trying to create new MetadataTransferManager with MBeanServerConnection {} and platform {}",
                 serverConnection, platform);
         MetadataTransferManager mdsTransfer = new MetadataTransferManager(serverConnection, platform);
@@ -172,10 +172,10 @@ public class MDSConnectionJMX extends AbstractConnection {
         logger.debug("Deleting files {} from MDS Application {} on server {}", new Object[]{mdsFiles, application, server});
         if (application == null || server == null || mdsFiles == null || mdsFiles.length == 0)
             return;
-        jmxConnection.invoke(MDS_RUNTIME, new JMXConnection.ProcessBeanType() {
+        jmxConnection.invokeParallel(JMXConnection.WORKLOAD.BULK, MDS_RUNTIME, new JMXConnection.ProcessBeanFunction<Void>() {
             @Override
-            public void execute(JMXConnection.ProcessingBean bean) {
-                if (bean == null) return;
+            public Void execute(JMXConnection.ProcessingBean bean) {
+                if (bean == null) return null;
                 logger.trace("Matching bean {} to desired bean", bean.getProperties());
                 if (bean.getProperties().containsKey("Location") && bean.getProperties().containsKey("Application") && bean.getProperties().containsKey("ApplicationVersion")) {
                     if (bean.getProperties().get("Location").equalsIgnoreCase(server) &&
@@ -186,6 +186,7 @@ public class MDSConnectionJMX extends AbstractConnection {
                         logger.debug("Deleted MDS files");
                     }
                 }
+                return null;
             }
         });
     }
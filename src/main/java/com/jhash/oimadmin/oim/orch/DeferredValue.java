@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.oim.orch;
+
+import com.jhash.oimadmin.OIMAdminException;
+
+import java.util.concurrent.*;
+
+// Value that is computed on the executor when it is first needed; the computed value (or failure) is retained. Once the
+// executor has been shut down (i.e. its connection has been closed) values that have not been loaded can not be loaded.
+class DeferredValue<T> {
+
+    private final Callable<T> loader;
+    private final ExecutorService executor;
+    private Future<T> result;
+
+    DeferredValue(Callable<T> loader, ExecutorService executor) {
+        if (loader == null)
+            throw new NullPointerException("No loader provided for deferred value");
+        this.loader = loader;
+        this.executor = executor;
+    }
+
+    static <T> DeferredValue<T> of(final T value) {
+        DeferredValue<T> deferredValue = new DeferredValue<>(new Callable<T>() {
+            @Override
+            public T call() {
+                return value;
+            }
+        }, null);
+        deferredValue.load();
+        return deferredValue;
+    }
+
+    // Starts loading the value without waiting for it.
+    synchronized Future<T> load() {
+        if (result == null) {
+            if (executor == null) {
+                FutureTask<T> task = new FutureTask<>(loader);
+                task.run();
+                result = task;
+            } else {
+                try {
+                    result = executor.submit(loader);
+                } catch (RejectedExecutionException exception) {
+                    throw new OIMAdminException("Value can not be loaded since the executor to load it has been shut down", exception);
+                }
+            }
+        }
+        return result;
+    }
+
+    T get() {
+        try {
+            return load().get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new OIMAdminException("Interrupted while waiting for value to be loaded", exception);
+        } catch (CancellationException exception) {
+            throw new OIMAdminException("Loading of value was cancelled since the executor to load it has been shut down", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof OIMAdminException)
+                throw (OIMAdminException) exception.getCause();
+            throw new OIMAdminException("Failed to load value", exception);
+        }
+    }
+
+    synchronized boolean isLoaded() {
+        return result != null && result.isDone();
+    }
+}
@@ -21,26 +21,35 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 public class Event11gR2PS2 {
 
     private static final Logger logger = LoggerFactory.getLogger(Event11gR2PS2.class);
     private final Object[] eventDetails;
-    private final Object data;
+    private final DeferredValue<Object> data;
 
     public Event11gR2PS2(Object[] eventDetails, ClassLoader classLoader) {
+        this(eventDetails, classLoader, null);
+    }
+
+    // Serialized result of the event is only read when it is requested.
+    public Event11gR2PS2(final Object[] eventDetails, final ClassLoader classLoader, ExecutorService executor) {
         this.eventDetails = eventDetails;
-        Object data = eventDetails[9];
-        if (eventDetails[9] instanceof byte[]) {
-            try {
-                data = Utils.getObjectInputStream(new ByteArrayInputStream((byte[]) eventDetails[9]), classLoader).readObject();
-            } catch (Exception exception) {
-                logger.warn("Failed to extract result from the Event details", exception);
-                data = eventDetails[9];
+        this.data = new DeferredValue<>(new Callable<Object>() {
+            @Override
+            public Object call() {
+                if (eventDetails[9] instanceof byte[]) {
+                    try {
+                        return Utils.getObjectInputStream(new ByteArrayInputStream((byte[]) eventDetails[9]), classLoader).readObject();
+                    } catch (Exception exception) {
+                        logger.warn("Failed to extract result from the Event details", exception);
+                    }
+                }
+                return eventDetails[9];
             }
-
-        }
-        this.data = data;
+        }, executor);
     }
 
     public Object getID() {
@@ -80,6 +89,6 @@ public class Event11gR2PS2 {
     }
 
     public Object getResult() {
-        return data;
+        return data.get();
     }
 }
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.oim.orch;
+
+import com.jhash.oimadmin.Config;
+import com.jhash.oimadmin.Utils;
+import com.jhash.oimadmin.oim.DBConnection;
+import com.jhash.oimadmin.oim.Details;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class OrchFailureScanner {
+
+    public static final String ATTR_ORCHESTRATION_CONFIG_PREFIX = "sysadmin.orchestration.";
+    public static final String ATTR_SCAN_INTERVAL = ATTR_ORCHESTRATION_CONFIG_PREFIX + "scan.interval";
+    public static final String ATTR_SCAN_LOOKBACK = ATTR_ORCHESTRATION_CONFIG_PREFIX + "scan.lookback";
+    public static final String ATTR_SCAN_OVERLAP = ATTR_ORCHESTRATION_CONFIG_PREFIX + "scan.overlap";
+    public static final String ATTR_SCAN_STATUS = ATTR_ORCHESTRATION_CONFIG_PREFIX + "scan.status";
+    public static final long DEFAULT_SCAN_INTERVAL = 30000L;
+    public static final long DEFAULT_SCAN_LOOKBACK = 86400000L;
+    public static final long DEFAULT_SCAN_OVERLAP = 60000L;
+    public static final String DEFAULT_SCAN_STATUS = "FAILED,PENDING";
+    public static final String GET_MODIFIED_PROCESSES = "select ID, ENTITYTYPE, ENTITYID, OPERATION, STATUS, MODIFIEDON from ORCHPROCESS where MODIFIEDON >= ? order by MODIFIEDON";
+    public static final String GET_FAILED_EVENTS = "select PROCESSID, NAME from ORCHEVENTS where STATUS = 'FAILED' and PROCESSID in (%s)";
+    public static final String[] SUMMARY_COLUMNS = new String[]{"Entity Type", "Operation", "Processes", "Failed Events"};
+    public static final String[] FAILURE_COLUMNS = new String[]{"Process ID", "Entity Type", "Entity ID", "Operation", "Status", "Modified On", "Failed Events"};
+
+    private static final Logger logger = LoggerFactory.getLogger(OrchFailureScanner.class);
+    private final OrchManager orchManager;
+    private final long scanInterval;
+    private final long overlap;
+    private final Set<String> trackedStatus = new HashSet<>();
+    private final Map<Long, Failure> failures = new HashMap<>();
+    // Entity Type -> Operation -> Process IDs
+    private final Map<String, Map<String, Set<Long>>> failureIndex = new TreeMap<>();
+    private final List<ScanListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile long watermark;
+    private ScheduledExecutorService scanExecutor;
+
+    public OrchFailureScanner(OrchManager orchManager, Config.Configuration configuration) {
+        this(orchManager,
+                configuration == null ? DEFAULT_SCAN_INTERVAL : Long.parseLong(configuration.getProperty(ATTR_SCAN_INTERVAL, "" + DEFAULT_SCAN_INTERVAL)),
+                configuration == null ? DEFAULT_SCAN_LOOKBACK : Long.parseLong(configuration.getProperty(ATTR_SCAN_LOOKBACK, "" + DEFAULT_SCAN_LOOKBACK)),
+                configuration == null ? DEFAULT_SCAN_OVERLAP : Long.parseLong(configuration.getProperty(ATTR_SCAN_OVERLAP, "" + DEFAULT_SCAN_OVERLAP)),
+                (configuration == null ? DEFAULT_SCAN_STATUS : configuration.getProperty(ATTR_SCAN_STATUS, DEFAULT_SCAN_STATUS)).split(","));
+    }
+
+    public OrchFailureScanner(OrchManager orchManager, long scanInterval, long lookback, long overlap, String... trackedStatus) {
+        if (orchManager == null)
+            throw new NullPointerException("Orchestration manager is needed for scanning orchestration failures");
+        if (scanInterval <= 0)
+            throw new IllegalArgumentException("Scan interval must be a positive number, found " + scanInterval);
+        this.orchManager = orchManager;
+        this.scanInterval = scanInterval;
+        this.overlap = Math.max(0, overlap);
+        for (String status : trackedStatus) {
+            if (status != null && !status.trim().isEmpty())
+                this.trackedStatus.add(status.trim().toUpperCase());
+        }
+        this.watermark = System.currentTimeMillis() - Math.max(0, lookback);
+    }
+
+    public synchronized void start() {
+        if (scanExecutor != null)
+            return;
+        logger.debug("Starting scan of orchestration failures with status {} every {} ms from {}", new Object[]{trackedStatus, scanInterval, new Date(watermark)});
+        scanExecutor = Utils.createScheduledExecutorService("Orchestration Failure Scanner");
+        scanExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                scan();
+            }
+        }, 0, scanInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scanExecutor == null)
+            return;
+        logger.debug("Stopping scan of orchestration failures at {}", new Date(watermark));
+        scanExecutor.shutdownNow();
+        scanExecutor = null;
+    }
+
+    public synchronized boolean isRunning() {
+        return scanExecutor != null;
+    }
+
+    public long getScanInterval() {
+        return scanInterval;
+    }
+
+    public Date getWatermark() {
+        return new Date(watermark);
+    }
+
+    public void addListener(ScanListener listener) {
+        if (listener != null)
+            listeners.add(listener);
+    }
+
+    public void removeListener(ScanListener listener) {
+        listeners.remove(listener);
+    }
+
+    public int getFailureCount() {
+        synchronized (failures) {
+            return failures.size();
+        }
+    }
+
+    public Details getSummary() {
+        List<Object[]> summary = new ArrayList<>();
+        synchronized (failures) {
+            for (Map.Entry<String, Map<String, Set<Long>>> entityType : failureIndex.entrySet()) {
+                for (Map.Entry<String, Set<Long>> operation : entityType.getValue().entrySet()) {
+                    int failedEvents = 0;
+                    for (Long processID : operation.getValue()) {
+                        failedEvents += failures.get(processID).failedEvents.size();
+                    }
+                    summary.add(new Object[]{entityType.getKey(), operation.getKey(), operation.getValue().size(), failedEvents});
+                }
+            }
+        }
+        return new Details(SUMMARY_COLUMNS, summary);
+    }
+
+    // Returns all the failures if entity type or operation is null.
+    public Details getFailures(String entityType, String operation) {
+        List<Object[]> result = new ArrayList<>();
+        synchronized (failures) {
+            Collection<Long> processIDs = failures.keySet();
+            if (entityType != null && operation != null) {
+                Map<String, Set<Long>> operations = failureIndex.get(entityType);
+                processIDs = operations == null || !operations.containsKey(operation) ? Collections.<Long>emptySet() : operations.get(operation);
+            }
+            for (Long processID : processIDs) {
+                Failure failure = failures.get(processID);
+                result.add(new Object[]{failure.processID, failure.entityType, failure.entityID, failure.operation, failure.status,
+                        failure.modifiedOn, failure.getFailedEvents()});
+            }
+        }
+        return new Details(FAILURE_COLUMNS, result);
+    }
+
+    public void clear() {
+        synchronized (failures) {
+            failures.clear();
+            failureIndex.clear();
+        }
+    }
+
+    // Only processes modified after the watermark are read. Since rows may be committed with a modification time older
+    // than the latest one already seen, the read overlaps the previous scan and the index update is idempotent.
+    void scan() {
+        try {
+            long scanFrom = watermark;
+            final long[] latestModification = new long[]{scanFrom};
+            final Map<Long, Failure> updatedFailures = new LinkedHashMap<>();
+            final Set<Long> resolvedProcesses = new HashSet<>();
+            DBConnection dbConnection = orchManager.getDBConnection();
+            long processCount = dbConnection.streamSQL(GET_MODIFIED_PROCESSES, new DBConnection.ProcessRecord() {
+                @Override
+                public void execute(Map<String, Object> record) {
+                    Object processIDValue = record.get("ID");
+                    if (!(processIDValue instanceof Number)) {
+                        logger.warn("Ignoring orchestration process with invalid ID {}", processIDValue);
+                        return;
+                    }
+                    Long processID = ((Number) processIDValue).longValue();
+                    Object modifiedOnValue = record.get("MODIFIEDON");
+                    Date modifiedOn = modifiedOnValue instanceof Date ? new Date(((Date) modifiedOnValue).getTime()) : null;
+                    if (modifiedOn != null)
+                        latestModification[0] = Math.max(latestModification[0], modifiedOn.getTime());
+                    else if (modifiedOnValue != null)
+                        logger.warn("Could not convert modification time {} ({}) of orchestration process {}. Scan watermark will not advance.",
+                                new Object[]{modifiedOnValue, modifiedOnValue.getClass().getName(), processID});
+                    String status = record.get("STATUS") == null ? "" : String.valueOf(record.get("STATUS")).toUpperCase();
+                    if (trackedStatus.contains(status)) {
+                        resolvedProcesses.remove(processID);
+                        updatedFailures.put(processID, new Failure(processID, String.valueOf(record.get("ENTITYTYPE")),
+                                String.valueOf(record.get("ENTITYID")), String.valueOf(record.get("OPERATION")), status, modifiedOn));
+                    } else {
+                        updatedFailures.remove(processID);
+                        resolvedProcesses.add(processID);
+                    }
+                }
+            }, new Timestamp(scanFrom - overlap));
+            List<Long> failedProcessIDs = new ArrayList<>(updatedFailures.keySet());
+            for (int chunkStart = 0; chunkStart < failedProcessIDs.size(); chunkStart += OrchManager.MAX_IDS_PER_QUERY) {
+                Details failedEvents = orchManager.invokeSQL(GET_FAILED_EVENTS,
+                        failedProcessIDs.subList(chunkStart, Math.min(chunkStart + OrchManager.MAX_IDS_PER_QUERY, failedProcessIDs.size())));
+                int processIDIndex = failedEvents.getColumnIndex("PROCESSID");
+                int nameIndex = failedEvents.getColumnIndex("NAME");
+                for (Object[] failedEvent : failedEvents.getData()) {
+                    if (!(failedEvent[processIDIndex] instanceof Number))
+                        continue;
+                    Failure failure = updatedFailures.get(((Number) failedEvent[processIDIndex]).longValue());
+                    if (failure != null)
+                        failure.failedEvents.add(String.valueOf(failedEvent[nameIndex]));
+                }
+            }
+            synchronized (failures) {
+                for (Long processID : resolvedProcesses) {
+                    removeFailure(processID);
+                }
+                for (Failure failure : updatedFailures.values()) {
+                    removeFailure(failure.processID);
+                    failures.put(failure.processID, failure);
+                    Map<String, Set<Long>> operations = failureIndex.get(failure.entityType);
+                    if (operations == null) {
+                        operations = new TreeMap<>();
+                        failureIndex.put(failure.entityType, operations);
+                    }
+                    Set<Long> processIDs = operations.get(failure.operation);
+                    if (processIDs == null) {
+                        processIDs = new TreeSet<>();
+                        operations.put(failure.operation, processIDs);
+                    }
+                    processIDs.add(failure.processID);
+                }
+            }
+            watermark = latestModification[0];
+            logger.trace("Scanned {} orchestration processes modified since {}, {} failures updated and {} resolved",
+                    new Object[]{processCount, new Date(scanFrom - overlap), updatedFailures.size(), resolvedProcesses.size()});
+            for (ScanListener listener : listeners) {
+                try {
+                    listener.scanned(this, updatedFailures.size(), resolvedProcesses.size());
+                } catch (Exception exception) {
+                    logger.warn("Failed to notify listener " + listener + " of orchestration failure scan", exception);
+                }
+            }
+        } catch (Exception exception) {
+            // Failure of one scan should not stop the scanning. Watermark is not moved and hence next scan retries the changes.
+            logger.warn("Failed to scan orchestration failures modified since " + new Date(watermark), exception);
+        }
+    }
+
+    private void removeFailure(Long processID) {
+        Failure failure = failures.remove(processID);
+        if (failure == null)
+            return;
+        Map<String, Set<Long>> operations = failureIndex.get(failure.entityType);
+        if (operations == null)
+            return;
+        Set<Long> processIDs = operations.get(failure.operation);
+        if (processIDs != null) {
+            processIDs.remove(processID);
+            if (processIDs.isEmpty())
+                operations.remove(failure.operation);
+        }
+        if (operations.isEmpty())
+            failureIndex.remove(failure.entityType);
+    }
+
+    public interface ScanListener {
+
+        void scanned(OrchFailureScanner scanner, int updatedFailures, int resolvedFailures);
+    }
+
+    private static class Failure {
+        final long processID;
+        final String entityType;
+        final String entityID;
+        final String operation;
+        final String status;
+        final Date modifiedOn;
+        final List<String> failedEvents = new ArrayList<>();
+
+        Failure(long processID, String entityType, String entityID, String operation, String status, Date modifiedOn) {
+            this.processID = processID;
+            this.entityType = entityType;
+            this.entityID = entityID;
+            this.operation = operation;
+            this.status = status;
+            this.modifiedOn = modifiedOn;
+        }
+
+        String getFailedEvents() {
+            StringBuilder failedEventNames = new StringBuilder();
+            for (String failedEvent : failedEvents) {
+                failedEventNames.append(failedEventNames.length() == 0 ? "" : ", ").append(failedEvent);
+            }
+            return failedEventNames.toString();
+        }
+    }
+}
@@ -26,24 +26,31 @@ import com.jhash.oimadmin.oim.OIMConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Constructor;
 import java.sql.Clob;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.*;
 
 public class OrchManager {
     public static final String GET_ORCHESTRATION_PROCESS_DETAILS = "select * from ORCHPROCESS where ID = ?";
     public static final String GET_ORCHESTRATION_PROCESS_EVENT_HANDLER_DETAILS = "select * from ORCHEVENTS where PROCESSID = ? order by orchorder";
+    public static final String GET_ORCHESTRATION_PROCESSES_DETAILS = "select * from ORCHPROCESS where ID in (%s)";
+    public static final String GET_ORCHESTRATION_PROCESSES_EVENT_HANDLER_DETAILS = "select * from ORCHEVENTS where PROCESSID in (%s) order by PROCESSID, orchorder";
     public static final String CONTEXT_VAL = "CONTEXTVAL";
     public static final String ORCHESTRATION = "ORCHESTRATION";
     public static final String ORCH_EVENTS = "ORCHEVENTS";
     public static final String ORCHESTRATION_ERROR = "ORCHESTRATION_ERROR";
 
     private static final Logger logger = LoggerFactory.getLogger(OrchManager.class);
+    static final int MAX_IDS_PER_QUERY = 512;
     private final JMXConnection jmxConnection;
     private final OIMConnection oimConnection;
     private final DBConnection dbConnection;
+    private final ExecutorService processExecutor = Utils.createExecutorService("Orchestration Loader", Runtime.getRuntime().availableProcessors());
+    // Decoding never waits for other tasks and hence uses a separate pool from the one used to load process details.
+    private final ExecutorService decodeExecutor = Utils.createExecutorService("Orchestration Decoder", Runtime.getRuntime().availableProcessors());
+    private volatile Constructor<?> failedEventResultConstructor;
 
     public OrchManager(OIMConnection oimConnection, JMXConnection jmxConnection, DBConnection dbConnection) {
         this.jmxConnection = jmxConnection;
@@ -55,6 +62,21 @@ public class OrchManager {
         return jmxConnection.getVersion();
     }
 
+    // Tasks that have not started are cancelled so that no one keeps waiting for them.
+    public void destroy() {
+        logger.debug("Destroying orchestration manager of {}", oimConnection);
+        for (ExecutorService executor : new ExecutorService[]{processExecutor, decodeExecutor}) {
+            for (Runnable pendingTask : executor.shutdownNow()) {
+                if (pendingTask instanceof Future)
+                    ((Future<?>) pendingTask).cancel(false);
+            }
+        }
+    }
+
+    DBConnection getDBConnection() {
+        return dbConnection;
+    }
+
     public void cancel(Long processId, boolean compensate, boolean cascade) {
         oimConnection.executeOrchestrationOperation("cancel", new Class[]{long.class, boolean.class, boolean.class},
                 new Object[]{processId, compensate, cascade});
@@ -67,98 +89,200 @@ public class OrchManager {
 
     public void handleFailedEvent(long processId, Object failedEventResponse) {
         try {
-            Class<?> failedResponseClass = oimConnection.getClass("oracle.iam.platform.kernel.vo.FailedEventResult$Response");
-            Class<?> failedEventResultClass = oimConnection.getClass("oracle.iam.platform.kernel.vo.FailedEventResult");
-            Object result = failedEventResultClass.getDeclaredConstructor(failedResponseClass).newInstance(failedEventResponse);
-            oimConnection.executeOrchestrationOperation("handleFailed", new Class[]{long.class, failedEventResultClass},
+            Constructor<?> resultConstructor = getFailedEventResultConstructor();
+            Object result = resultConstructor.newInstance(failedEventResponse);
+            oimConnection.executeOrchestrationOperation("handleFailed", new Class[]{long.class, resultConstructor.getDeclaringClass()},
                     new Object[]{processId, result});
         } catch (Exception exception) {
             throw new OIMAdminException("Failed to handle failed event for process id " + processId + " with response " + failedEventResponse, exception);
         }
     }
 
+    private Constructor<?> getFailedEventResultConstructor() throws NoSuchMethodException {
+        Constructor<?> resultConstructor = failedEventResultConstructor;
+        if (resultConstructor == null) {
+            Class<?> failedResponseClass = oimConnection.getClass("oracle.iam.platform.kernel.vo.FailedEventResult$Response");
+            Class<?> failedEventResultClass = oimConnection.getClass("oracle.iam.platform.kernel.vo.FailedEventResult");
+            resultConstructor = failedEventResultClass.getDeclaredConstructor(failedResponseClass);
+            failedEventResultConstructor = resultConstructor;
+        }
+        return resultConstructor;
+    }
+
     public Object[] getAllowedResponsesForFailedEvent() {
         Class<?> failedResponseClass = oimConnection.getClass("oracle.iam.platform.kernel.vo.FailedEventResult$Response");
         return failedResponseClass.getEnumConstants();
     }
 
     public Details getOrchestrationProcessDetails(long orchestrationProcessID) {
-        Details result = dbConnection.invokeSQL(GET_ORCHESTRATION_PROCESS_DETAILS, orchestrationProcessID);
-        for (int processingValue = 0; processingValue < result.size(); processingValue++) {
-            Map<String, Object> values = result.getItemAt(processingValue);
-            if (values.containsKey(CONTEXT_VAL)) {
-                Object contextValObject = values.get(CONTEXT_VAL);
-                String contextValAsString = "";
-                if (contextValObject != null) {
-                    if (contextValObject instanceof Clob) {
-                        Clob contextVal = (Clob) contextValObject;
-                        try {
-                            contextValAsString = contextVal.getSubString(1, (int) contextVal.length());
-                        } catch (SQLException exception) {
-                            logger.warn("Failed to extract context value while processing result of orchestration process " + orchestrationProcessID, exception);
-                            contextValAsString = "Failed to extract value.. Error " + exception;
+        return getOrchestrationProcessDetails(Collections.singleton(orchestrationProcessID)).get(orchestrationProcessID);
+    }
+
+    // Process and event details are read using one query per chunk of process IDs and each process is processed in parallel.
+    // Serialized orchestration and event results are only decoded when requested. The result contains an entry for each
+    // requested process ID, in the order of the IDs.
+    public Map<Long, Details> getOrchestrationProcessDetails(Collection<Long> orchestrationProcessIDs) {
+        logger.debug("Trying to get orchestration details of {} processes", orchestrationProcessIDs == null ? 0 : orchestrationProcessIDs.size());
+        Map<Long, Details> result = new LinkedHashMap<>();
+        if (orchestrationProcessIDs == null || orchestrationProcessIDs.isEmpty())
+            return result;
+        List<Long> processIDs = new ArrayList<>(new LinkedHashSet<>(orchestrationProcessIDs));
+        String[] processColumns = new String[0];
+        Map<Long, List<Object[]>> processRecords = new HashMap<>();
+        Map<Long, List<Object[]>> eventRecords = new HashMap<>();
+        boolean readEvents = getVersion() == Config.OIM_VERSION.OIM11GR2PS2;
+        for (int chunkStart = 0; chunkStart < processIDs.size(); chunkStart += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = processIDs.subList(chunkStart, Math.min(chunkStart + MAX_IDS_PER_QUERY, processIDs.size()));
+            Details processDetails = invokeSQL(GET_ORCHESTRATION_PROCESSES_DETAILS, chunk);
+            processColumns = processDetails.getColumns();
+            groupByProcessID(processDetails, "ID", processRecords);
+            if (readEvents)
+                groupByProcessID(invokeSQL(GET_ORCHESTRATION_PROCESSES_EVENT_HANDLER_DETAILS, chunk), "PROCESSID", eventRecords);
+        }
+        Map<Long, Future<Details>> pendingDetails = new LinkedHashMap<>();
+        for (final Long processID : processIDs) {
+            final List<Object[]> records = Utils.getOrDefault(processRecords, processID, new ArrayList<Object[]>());
+            final List<Object[]> events = Utils.getOrDefault(eventRecords, processID, new ArrayList<Object[]>());
+            final Details processDetails = new Details(processColumns, records);
+            try {
+                pendingDetails.put(processID, processExecutor.submit(new Callable<Details>() {
+                    @Override
+                    public Details call() {
+                        for (int processingValue = 0; processingValue < processDetails.size(); processingValue++) {
+                            processOrchestrationDetails(processID, processDetails.getItemAt(processingValue), events);
                         }
-                    } else {
-                        contextValAsString = contextValObject.toString();
+                        return processDetails;
                     }
-                }
-                values.put(CONTEXT_VAL, contextValAsString);
+                }));
+            } catch (RejectedExecutionException exception) {
+                throw new OIMAdminException("Failed to load orchestration details of process " + processID + " since orchestration manager of " + oimConnection + " has been destroyed", exception);
+            }
+        }
+        for (Map.Entry<Long, Future<Details>> pendingDetail : pendingDetails.entrySet()) {
+            try {
+                result.put(pendingDetail.getKey(), pendingDetail.getValue().get());
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new OIMAdminException("Interrupted while waiting for orchestration details of process " + pendingDetail.getKey(), exception);
+            } catch (CancellationException exception) {
+                throw new OIMAdminException("Loading of orchestration details of process " + pendingDetail.getKey() + " was cancelled since orchestration manager of " + oimConnection
+                        + " has been destroyed", exception);
+            } catch (ExecutionException exception) {
+                throw new OIMAdminException("Failed to process orchestration details of process " + pendingDetail.getKey(), exception);
             }
-            switch (getVersion()) {
-                case OIM11GR2PS2: {
-                    StringBuilder errorMessage = new StringBuilder();
-                    Orchestration orchestrationObject = null;
+        }
+        logger.debug("Retrieved orchestration details of {} processes", result.size());
+        return result;
+    }
+
+    // The number of place holders is rounded up to a power of two (repeating the last ID) so that only a few distinct
+    // statements are prepared and cached for any number of IDs.
+    Details invokeSQL(String sqlTemplate, List<Long> processIDs) {
+        int placeHolderCount = Integer.highestOneBit(processIDs.size());
+        if (placeHolderCount < processIDs.size())
+            placeHolderCount <<= 1;
+        placeHolderCount = Math.min(placeHolderCount, MAX_IDS_PER_QUERY);
+        StringBuilder placeHolders = new StringBuilder();
+        Object[] parameterValues = new Object[placeHolderCount];
+        for (int counter = 0; counter < placeHolderCount; counter++) {
+            placeHolders.append(counter == 0 ? "?" : ",?");
+            parameterValues[counter] = processIDs.get(Math.min(counter, processIDs.size() - 1));
+        }
+        return dbConnection.invokeSQL(String.format(sqlTemplate, placeHolders), parameterValues);
+    }
+
+    private void groupByProcessID(Details details, String processIDColumn, Map<Long, List<Object[]>> groupedRecords) {
+        int processIDIndex = details.getColumnIndex(processIDColumn);
+        if (processIDIndex < 0)
+            throw new NullPointerException("Could not locate column " + processIDColumn + " in result with columns " + Arrays.toString(details.getColumns()));
+        for (Object[] record : details.getData()) {
+            Object processIDValue = record[processIDIndex];
+            if (!(processIDValue instanceof Number)) {
+                logger.warn("Ignoring record with invalid process ID {} in column {}", processIDValue, processIDColumn);
+                continue;
+            }
+            Long processID = ((Number) processIDValue).longValue();
+            List<Object[]> records = groupedRecords.get(processID);
+            if (records == null) {
+                records = new ArrayList<>();
+                groupedRecords.put(processID, records);
+            }
+            records.add(record);
+        }
+    }
+
+    private void processOrchestrationDetails(long orchestrationProcessID, Map<String, Object> values, List<Object[]> events) {
+        if (values.containsKey(CONTEXT_VAL)) {
+            Object contextValObject = values.get(CONTEXT_VAL);
+            String contextValAsString = "";
+            if (contextValObject != null) {
+                if (contextValObject instanceof Clob) {
+                    Clob contextVal = (Clob) contextValObject;
                     try {
-                        orchestrationObject = oimConnection.executeOrchestrationOperation("getOrchestration", new Class[]{long.class}, new Object[]{orchestrationProcessID});
-                        if (orchestrationObject != null) {
-                            values.put(ORCHESTRATION, orchestrationObject);
-                        } else {
-                            values.put(ORCHESTRATION_ERROR, "Failed to retrieve Orchestration for " + orchestrationProcessID);
-                        }
-                    } catch (Exception exception) {
-                        Utils.extractExceptionDetails(exception, errorMessage.append("Failed to extract Orchestration for process ID " + orchestrationProcessID));
+                        contextValAsString = contextVal.getSubString(1, (int) contextVal.length());
+                    } catch (SQLException exception) {
+                        logger.warn("Failed to extract context value while processing result of orchestration process " + orchestrationProcessID, exception);
+                        contextValAsString = "Failed to extract value.. Error " + exception;
                     }
-                    Details resultValues = dbConnection.invokeSQL(GET_ORCHESTRATION_PROCESS_EVENT_HANDLER_DETAILS, orchestrationProcessID);
-                    List<Event11gR2PS2> eventDetails = new ArrayList<>();
-                    for (Object[] record : resultValues.getData()) {
-                        try {
-                            eventDetails.add(new Event11gR2PS2(record, oimConnection.getClassLoader()));
-                        } catch (Exception exception) {
-                            Utils.extractExceptionDetails(exception, errorMessage.append("Failed to extract Event Details."));
-                        }
+                } else {
+                    contextValAsString = contextValObject.toString();
+                }
+            }
+            values.put(CONTEXT_VAL, contextValAsString);
+        }
+        switch (getVersion()) {
+            case OIM11GR2PS2: {
+                StringBuilder errorMessage = new StringBuilder();
+                Orchestration orchestrationObject = null;
+                try {
+                    orchestrationObject = oimConnection.executeOrchestrationOperation("getOrchestration", new Class[]{long.class}, new Object[]{orchestrationProcessID});
+                    if (orchestrationObject != null) {
+                        values.put(ORCHESTRATION, orchestrationObject);
+                    } else {
+                        values.put(ORCHESTRATION_ERROR, "Failed to retrieve Orchestration for " + orchestrationProcessID);
                     }
-                    values.put(ORCH_EVENTS, eventDetails);
-                    String orchestrationErrorMessage = errorMessage.toString();
-                    if (!Utils.isEmpty(orchestrationErrorMessage)) {
-                        values.put(ORCHESTRATION_ERROR, orchestrationErrorMessage);
+                } catch (Exception exception) {
+                    Utils.extractExceptionDetails(exception, errorMessage.append("Failed to extract Orchestration for process ID " + orchestrationProcessID));
+                }
+                List<Event11gR2PS2> eventDetails = new ArrayList<>();
+                for (Object[] record : events) {
+                    try {
+                        eventDetails.add(new Event11gR2PS2(record, oimConnection.getClassLoader(), decodeExecutor));
+                    } catch (Exception exception) {
+                        Utils.extractExceptionDetails(exception, errorMessage.append("Failed to extract Event Details."));
                     }
-                    break;
                 }
-                default: {
-                    PublicProcessImpl orchestrationProcessDetails = null;
-                    Object orchestrationObject = values.remove(ORCHESTRATION);
-                    if (orchestrationObject != null) {
-                        if (orchestrationObject instanceof byte[]) {
-                            try {
-                                orchestrationProcessDetails = oimConnection.getOrchestration((byte[]) orchestrationObject);
-                            } catch (Exception exception) {
-                                logger.warn("Failed to extract orchestration details from blob for process ID " + orchestrationProcessID, exception);
-                                values.put(ORCHESTRATION_ERROR, "Orchestration details could not be retrieved. Error " + exception);
+                values.put(ORCH_EVENTS, eventDetails);
+                String orchestrationErrorMessage = errorMessage.toString();
+                if (!Utils.isEmpty(orchestrationErrorMessage)) {
+                    values.put(ORCHESTRATION_ERROR, orchestrationErrorMessage);
+                }
+                break;
+            }
+            default: {
+                PublicProcessImpl orchestrationProcessDetails = null;
+                Object orchestrationObject = values.remove(ORCHESTRATION);
+                if (orchestrationObject != null) {
+                    if (orchestrationObject instanceof byte[]) {
+                        final byte[] orchestrationBytes = (byte[]) orchestrationObject;
+                        orchestrationProcessDetails = new PublicProcessImpl(new Callable<Object>() {
+                            @Override
+                            public Object call() {
+                                return oimConnection.readOrchestration(orchestrationBytes);
                             }
-                        } else {
-                            values.put(ORCHESTRATION_ERROR, "Orchestration details was not retrieved as a BLOB. Could not process further.");
-                        }
-                    }
-                    if (orchestrationProcessDetails != null) {
-                        values.put(ORCHESTRATION, orchestrationProcessDetails);
-                    } else if (!values.containsKey(ORCHESTRATION_ERROR)) {
-                        values.put(ORCHESTRATION_ERROR, "Orchestration details was not retrieved due to unknown error.");
+                        }, decodeExecutor, oimConnection.getClassLoader());
+                    } else {
+                        values.put(ORCHESTRATION_ERROR, "Orchestration details was not retrieved as a BLOB. Could not process further.");
                     }
-                    break;
                 }
+                if (orchestrationProcessDetails != null) {
+                    values.put(ORCHESTRATION, orchestrationProcessDetails);
+                } else if (!values.containsKey(ORCHESTRATION_ERROR)) {
+                    values.put(ORCHESTRATION_ERROR, "Orchestration details was not retrieved due to unknown error.");
+                }
+                break;
             }
         }
-        return result;
     }
 
 }
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.oim.orch;
+
+import com.jhash.oimadmin.Config;
+import com.jhash.oimadmin.OIMAdminException;
+import com.jhash.oimadmin.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OrchRemediationJob {
+
+    public static final String ATTR_REMEDIATION_CONCURRENCY = OrchFailureScanner.ATTR_ORCHESTRATION_CONFIG_PREFIX + "remediation.concurrency";
+    public static final String ATTR_REMEDIATION_RATE = OrchFailureScanner.ATTR_ORCHESTRATION_CONFIG_PREFIX + "remediation.rate";
+    public static final int DEFAULT_REMEDIATION_CONCURRENCY = 4;
+    public static final double DEFAULT_REMEDIATION_RATE = 10;
+    public static final String JOURNAL_SUCCESS = "SUCCESS";
+    public static final String JOURNAL_FAILED = "FAILED";
+    public static final String PROCESS_STATUS_FAILED = "FAILED";
+
+    private static final Logger logger = LoggerFactory.getLogger(OrchRemediationJob.class);
+    private final OrchManager orchManager;
+    private final Action action;
+    private final List<Long> processIDs;
+    private final File journalFile;
+    private final int concurrency;
+    // Minimum time between two operations in nano seconds, 0 if not rate limited
+    private final long permitInterval;
+    private final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final Object permitLock = new Object();
+    private long nextPermitTime;
+    private volatile boolean cancelled = false;
+
+    public OrchRemediationJob(OrchManager orchManager, Action action, Collection<Long> processIDs, File journalFile, Config.Configuration configuration) {
+        this(orchManager, action, processIDs, journalFile,
+                configuration == null ? DEFAULT_REMEDIATION_CONCURRENCY : Integer.parseInt(configuration.getProperty(ATTR_REMEDIATION_CONCURRENCY, "" + DEFAULT_REMEDIATION_CONCURRENCY)),
+                configuration == null ? DEFAULT_REMEDIATION_RATE : Double.parseDouble(configuration.getProperty(ATTR_REMEDIATION_RATE, "" + DEFAULT_REMEDIATION_RATE)));
+    }
+
+    // Rate is the maximum number of operations per second. Any value less than or equal to 0 disables rate limiting.
+    public OrchRemediationJob(OrchManager orchManager, Action action, Collection<Long> processIDs, File journalFile, int concurrency, double rate) {
+        if (orchManager == null || action == null || processIDs == null || journalFile == null)
+            throw new NullPointerException("Orchestration manager, action, process IDs and journal file are needed for remediation");
+        if (concurrency <= 0)
+            throw new IllegalArgumentException("Remediation concurrency must be a positive number, found " + concurrency);
+        this.orchManager = orchManager;
+        this.action = action;
+        this.processIDs = new ArrayList<>(new LinkedHashSet<>(processIDs));
+        this.journalFile = journalFile;
+        this.concurrency = concurrency;
+        this.permitInterval = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+    }
+
+    // Runs the action on all the process IDs that have not already been remediated successfully with the same action as per
+    // the journal and waits for the completion. Outcome of each process is appended to the journal as it completes so that
+    // an interrupted or cancelled run can be resumed by running a job with same journal.
+    public void run() {
+        Set<Long> remediatedProcessIDs = readJournal();
+        List<Long> pendingProcessIDs = new ArrayList<>();
+        for (Long processID : processIDs) {
+            if (remediatedProcessIDs.contains(processID))
+                skipped.incrementAndGet();
+            else
+                pendingProcessIDs.add(processID);
+        }
+        logger.info("Running {} on {} orchestration processes ({} already remediated) with concurrency {} and {} ms between operations",
+                new Object[]{action, pendingProcessIDs.size(), skipped.get(), concurrency, TimeUnit.NANOSECONDS.toMillis(permitInterval)});
+        ExecutorService remediationExecutor = Utils.createExecutorService("Orchestration Remediation", concurrency);
+        try (final BufferedWriter journal = Files.newBufferedWriter(journalFile.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)) {
+            synchronized (permitLock) {
+                nextPermitTime = System.nanoTime();
+            }
+            List<Future<?>> pendingRemediations = new ArrayList<>(pendingProcessIDs.size());
+            for (final Long processID : pendingProcessIDs) {
+                pendingRemediations.add(remediationExecutor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        remediate(processID, journal);
+                    }
+                }));
+            }
+            for (Future<?> pendingRemediation : pendingRemediations) {
+                pendingRemediation.get();
+            }
+        } catch (InterruptedException exception) {
+            cancelled = true;
+            Thread.currentThread().interrupt();
+            throw new OIMAdminException("Interrupted while remediating orchestration processes using " + action, exception);
+        } catch (Exception exception) {
+            cancelled = true;
+            throw new OIMAdminException("Failed to remediate orchestration processes using " + action + " with journal " + journalFile, exception);
+        } finally {
+            remediationExecutor.shutdownNow();
+        }
+        logger.info("Completed {} on {} orchestration processes, {} failed, {} skipped{}", new Object[]{action, completed.get(), failed.get(),
+                skipped.get(), cancelled ? " (cancelled)" : ""});
+    }
+
+    private void remediate(long processID, BufferedWriter journal) {
+        if (cancelled)
+            return;
+        try {
+            acquirePermit();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (cancelled)
+            return;
+        Exception failure = null;
+        try {
+            logger.trace("Trying to run {} on orchestration process {}", action, processID);
+            action.execute(orchManager, processID);
+            completed.incrementAndGet();
+        } catch (Exception exception) {
+            logger.warn("Failed to run " + action + " on orchestration process " + processID, exception);
+            failed.incrementAndGet();
+            failure = exception;
+        }
+        writeJournal(journal, processID, failure);
+        for (ProgressListener listener : listeners) {
+            try {
+                listener.progress(this, processID, failure);
+            } catch (Exception exception) {
+                logger.warn("Failed to notify listener " + listener + " of remediation of orchestration process " + processID, exception);
+            }
+        }
+    }
+
+    private void acquirePermit() throws InterruptedException {
+        if (permitInterval <= 0)
+            return;
+        long waitTime;
+        synchronized (permitLock) {
+            long now = System.nanoTime();
+            long permitTime = Math.max(now, nextPermitTime);
+            nextPermitTime = permitTime + permitInterval;
+            waitTime = permitTime - now;
+        }
+        if (waitTime > 0)
+            TimeUnit.NANOSECONDS.sleep(waitTime);
+    }
+
+    // Journal contains one tab separated line for each process in format <Process ID> <Action> <Outcome> <Time> <Error>
+    private void writeJournal(BufferedWriter journal, long processID, Exception failure) {
+        String error = failure == null ? "" : String.valueOf(failure.getCause() == null ? failure.getMessage() : failure.getCause().getMessage());
+        String entry = processID + "\t" + action.getName() + "\t" + (failure == null ? JOURNAL_SUCCESS : JOURNAL_FAILED) + "\t"
+                + System.currentTimeMillis() + "\t" + error.replaceAll("[\\t\\r\\n]+", " ");
+        synchronized (journal) {
+            try {
+                journal.write(entry);
+                journal.newLine();
+                journal.flush();
+            } catch (IOException exception) {
+                throw new OIMAdminException("Failed to record outcome " + entry + " in journal " + journalFile, exception);
+            }
+        }
+    }
+
+    private Set<Long> readJournal() {
+        Set<Long> remediatedProcessIDs = new HashSet<>();
+        if (!journalFile.exists())
+            return remediatedProcessIDs;
+        try (BufferedReader journal = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+            String entry;
+            while ((entry = journal.readLine()) != null) {
+                String[] values = entry.split("\t");
+                if (values.length < 3 || !action.getName().equals(values[1]))
+                    continue;
+                try {
+                    Long processID = Long.parseLong(values[0]);
+                    if (JOURNAL_SUCCESS.equals(values[2]))
+                        remediatedProcessIDs.add(processID);
+                    else
+                        remediatedProcessIDs.remove(processID);
+                } catch (NumberFormatException exception) {
+                    logger.warn("Ignoring journal entry {} with invalid process ID", entry);
+                }
+            }
+        } catch (IOException exception) {
+            throw new OIMAdminException("Failed to read remediation journal " + journalFile, exception);
+        }
+        logger.debug("Located {} processes remediated using {} in journal {}", new Object[]{remediatedProcessIDs.size(), action, journalFile});
+        return remediatedProcessIDs;
+    }
+
+    public void cancel() {
+        logger.debug("Cancelling {} on orchestration processes", action);
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public int getTotal() {
+        return processIDs.size();
+    }
+
+    public int getCompleted() {
+        return completed.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    public void addListener(ProgressListener listener) {
+        if (listener != null)
+            listeners.add(listener);
+    }
+
+    public void removeListener(ProgressListener listener) {
+        listeners.remove(listener);
+    }
+
+    public static Action handleFailedEvent(final Object failedEventResponse) {
+        return new Action("handleFailed:" + failedEventResponse, PROCESS_STATUS_FAILED) {
+            @Override
+            public void execute(OrchManager orchManager, long processID) {
+                orchManager.handleFailedEvent(processID, failedEventResponse);
+            }
+        };
+    }
+
+    public static Action cancel(final boolean compensate, final boolean cascade) {
+        return new Action("cancel:compensate=" + compensate + ",cascade=" + cascade) {
+            @Override
+            public void execute(OrchManager orchManager, long processID) {
+                orchManager.cancel(processID, compensate, cascade);
+            }
+        };
+    }
+
+    public static Action cancelPendingFailedEvent() {
+        return new Action("cancelPendingFailedEvent", PROCESS_STATUS_FAILED) {
+            @Override
+            public void execute(OrchManager orchManager, long processID) {
+                orchManager.cancelPendingFailedEvent(processID);
+            }
+        };
+    }
+
+    public interface ProgressListener {
+
+        // Failure is null if the action was successful
+        void progress(OrchRemediationJob job, long processID, Exception failure);
+    }
+
+    public static abstract class Action {
+        private final String name;
+        private final String processStatus;
+
+        protected Action(String name) {
+            this(name, null);
+        }
+
+        // Process status is the orchestration process status the action applies to, null if it applies to any status.
+        protected Action(String name, String processStatus) {
+            this.name = name;
+            this.processStatus = processStatus;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getProcessStatus() {
+            return processStatus;
+        }
+
+        public boolean isApplicable(String status) {
+            return processStatus == null || processStatus.equalsIgnoreCase(status);
+        }
+
+        public abstract void execute(OrchManager orchManager, long processID);
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -23,21 +23,45 @@ import org.slf4j.LoggerFactory;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 public class PublicProcessImpl {
     private static final Logger logger = LoggerFactory.getLogger(PublicProcessImpl.class);
-    private final Object process;
+    private final DeferredValue<Object> process;
     private final ClassLoader classLoader;
 
     public PublicProcessImpl(Object process, ClassLoader classLoader) {
         if (process == null)
             throw new NullPointerException("No process object passed.");
-        this.process = process;
+        this.process = DeferredValue.of(process);
         this.classLoader = classLoader;
     }
 
+    // The process is loaded using the executor when any of its details are requested for the first time.
+    public PublicProcessImpl(Callable<Object> processLoader, ExecutorService executor, ClassLoader classLoader) {
+        this.process = new DeferredValue<>(processLoader, executor);
+        this.classLoader = classLoader;
+    }
+
+    private Object getProcess() {
+        Object processObject = process.get();
+        if (processObject == null)
+            throw new NullPointerException("No process object was loaded.");
+        return processObject;
+    }
+
+    public boolean isLoaded() {
+        return process.isLoaded();
+    }
+
+    // Waits for the process to be loaded and throws the failure, if any, encountered while loading it.
+    public void load() {
+        getProcess();
+    }
+
     private List<Event> extractEvent(String methodName) {
-        List<Object> events = Utils.invoke(process, methodName, new ArrayList<Object>());
+        List<Object> events = Utils.invoke(getProcess(), methodName, new ArrayList<Object>());
         if (events != null) {
             List<Event> eventList = new ArrayList<>();
             for (Object event : events) {
@@ -49,7 +73,7 @@ public class PublicProcessImpl {
     }
 
     public Object getTarget() {
-        Object target = Utils.invoke(process, "getTarget", "N/A");
+        Object target = Utils.invoke(getProcess(), "getTarget", "N/A");
         if (target != null) {
             try {
                 Class orchestrationClass = classLoader.loadClass("oracle.iam.platform.kernel.vo.Orchestration");
@@ -72,31 +96,31 @@ public class PublicProcessImpl {
     }
 
     public Serializable getResult() {
-        return Event.getStringRepresentation(Utils.invoke(process, "getResult", "N/A"), classLoader);
+        return Event.getStringRepresentation(Utils.invoke(getProcess(), "getResult", "N/A"), classLoader);
     }
 
     public Event.Stage getStopStage() {
-        return new Event.Stage(Utils.invoke(process, "getStopStage", null), classLoader);
+        return new Event.Stage(Utils.invoke(getProcess(), "getStopStage", null), classLoader);
     }
 
     public Event getCurrentHandler() {
-        return new Event(Utils.invoke(process, "getCurrentHandler", null), classLoader);
+        return new Event(Utils.invoke(getProcess(), "getCurrentHandler", null), classLoader);
     }
 
 
     public PublicProcessImpl getParent() {
-        Object parentProcess = Utils.invoke(process, "getParent", null);
+        Object parentProcess = Utils.invoke(getProcess(), "getParent", null);
         if (parentProcess == null)
             return null;
         return new PublicProcessImpl(parentProcess, classLoader);
     }
 
     public boolean isRunning() {
-        return Utils.invoke(process, "isRunning", false);
+        return Utils.invoke(getProcess(), "isRunning", false);
     }
 
     public boolean isStoppable() {
-        return Utils.invoke(process, "isStoppable", false);
+        return Utils.invoke(getProcess(), "isStoppable", false);
     }
 
     /*protected HandlerProvider getHandlerProvider() {
@@ -104,7 +128,7 @@ public class PublicProcessImpl {
     }*/
 
     public boolean isObjectSaved() {
-        return Utils.invoke(process, "isObjectSaved", false);
+        return Utils.invoke(getProcess(), "isObjectSaved", false);
     }
 
     /*public String getLogStatement(String methodName) {
@@ -112,60 +136,60 @@ public class PublicProcessImpl {
     }*/
 
     public boolean hasDeferredChanges() {
-        return Utils.invoke(process, "hasDeferredChanges", false);
+        return Utils.invoke(getProcess(), "hasDeferredChanges", false);
     }
 
     public boolean hasChildrenFromBulk() {
-        return Utils.invoke(process, "hasChildrenFromBulk", false);
+        return Utils.invoke(getProcess(), "hasChildrenFromBulk", false);
     }
 
     public Event.ID getProcessId() {
-        return new Event.ID(Utils.invoke(process, "getProcessId", null), classLoader);
+        return new Event.ID(Utils.invoke(getProcess(), "getProcessId", null), classLoader);
     }
 
     public Status getStatus() {
-        return new Status(Utils.invoke(process, "getStatus", null), classLoader);
+        return new Status(Utils.invoke(getProcess(), "getStatus", null), classLoader);
     }
 
     public String getOperation() {
-        return Utils.invoke(process, "getOperation", "N/A");
+        return Utils.invoke(getProcess(), "getOperation", "N/A");
     }
 
     public Event.Stage getStage() {
-        return new Event.Stage(Utils.invoke(process, "getStage", null), classLoader);
+        return new Event.Stage(Utils.invoke(getProcess(), "getStage", null), classLoader);
     }
 
     public Event.Stage getStartStage() {
-        return new Event.Stage(Utils.invoke(process, "getStartStage", null), classLoader);
+        return new Event.Stage(Utils.invoke(getProcess(), "getStartStage", null), classLoader);
     }
 
     public String getTargetType() {
-        return Utils.invoke(process, "getTargetType", "N/A");
+        return Utils.invoke(getProcess(), "getTargetType", "N/A");
     }
 
     public String getChangeType() {
-        Object changeType = Utils.invoke(process, "getChangeType", null);
+        Object changeType = Utils.invoke(getProcess(), "getChangeType", null);
         return changeType == null ? "null" : changeType.toString();
     }
 
     public int getRetryCount() {
-        return Utils.invoke(process, "getRetryCount", -1);
+        return Utils.invoke(getProcess(), "getRetryCount", -1);
     }
 
     public Event.ID getParentId() {
-        return new Event.ID(Utils.invoke(process, "getParentId", null), classLoader);
+        return new Event.ID(Utils.invoke(getProcess(), "getParentId", null), classLoader);
     }
 
     public Long getModifiedOn() {
-        return Utils.invoke(process, "getModifiedOn", -1L);
+        return Utils.invoke(getProcess(), "getModifiedOn", -1L);
     }
 
     public Event.ID getBulkParentId() {
-        return new Event.ID(Utils.invoke(process, "getBulkParentId", null), classLoader);
+        return new Event.ID(Utils.invoke(getProcess(), "getBulkParentId", null), classLoader);
     }
 
     public Long getCreatedOn() {
-        return Utils.invoke(process, "getCreatedOn", -1L);
+        return Utils.invoke(getProcess(), "getCreatedOn", -1L);
     }
 
 
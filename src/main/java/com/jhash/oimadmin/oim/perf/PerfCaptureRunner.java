@@ -0,0 +1,234 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.oim.perf;
+
+import com.jhash.oimadmin.Config;
+import com.jhash.oimadmin.OIMAdminException;
+import com.jhash.oimadmin.Utils;
+import com.jhash.oimadmin.oim.JMXConnection;
+import com.jhash.oimadmin.oim.eventHandlers.Manager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.*;
+
+public class PerfCaptureRunner {
+
+    public static final String ARG_CONNECTION = "-connection";
+    public static final String ARG_ITEM = "-item";
+    public static final String ARG_SERVER = "-server";
+    public static final String ARG_MODE = "-mode";
+    public static final String ARG_DURATION = "-duration";
+    public static final String ARG_INTERVAL = "-interval";
+    public static final String ARG_FORMAT = "-format";
+    public static final String ARG_OUTPUT = "-output";
+    public static final String MODE_SNAPSHOT = "snapshot";
+    public static final String MODE_SAMPLE = "sample";
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final Logger logger = LoggerFactory.getLogger(PerfCaptureRunner.class);
+    private final Config.Configuration configuration;
+    private final Map<String, String> arguments;
+    private JMXConnection jmxConnection;
+    private PerfManager perfManager;
+
+    public PerfCaptureRunner(Config.Configuration configuration, Map<String, String> arguments) {
+        if (configuration == null)
+            throw new NullPointerException("No configuration provided for performance capture");
+        this.configuration = configuration;
+        this.arguments = arguments == null ? new HashMap<String, String>() : arguments;
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        Map<String, String> arguments = parseArguments(args);
+        if (arguments == null || Utils.isEmpty(arguments.get(ARG_CONNECTION))) {
+            System.err.println("Usage: " + PerfCaptureRunner.class.getName() + " " + ARG_CONNECTION + " <connection name> ["
+                    + ARG_ITEM + " <performance item>] [" + ARG_SERVER + " <server name>] [" + ARG_MODE + " " + MODE_SNAPSHOT + "|" + MODE_SAMPLE + "] ["
+                    + ARG_DURATION + " <seconds>] [" + ARG_INTERVAL + " <milliseconds>] [" + ARG_FORMAT + " " + FORMAT_CSV + "|" + FORMAT_NDJSON + "] ["
+                    + ARG_OUTPUT + " <file>]");
+            System.exit(2);
+        }
+        Config config = new Config();
+        config.load();
+        if (!config.getConnectionNames().contains(arguments.get(ARG_CONNECTION))) {
+            System.err.println("Connection " + arguments.get(ARG_CONNECTION) + " is not available. Available connections: " + config.getConnectionNames());
+            System.exit(2);
+        }
+        try {
+            new PerfCaptureRunner(config.getConnectionDetails(arguments.get(ARG_CONNECTION)), arguments).run();
+        } catch (Exception exception) {
+            logger.error("Failed to capture performance data", exception);
+            System.err.println(Utils.extractExceptionDetails(exception));
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    static Map<String, String> parseArguments(String[] args) {
+        Map<String, String> arguments = new HashMap<>();
+        if (args == null)
+            return arguments;
+        for (int counter = 0; counter < args.length; counter++) {
+            if (!args[counter].startsWith("-") || counter + 1 >= args.length)
+                return null;
+            arguments.put(args[counter].toLowerCase(), args[++counter]);
+        }
+        return arguments;
+    }
+
+    public void run() throws IOException {
+        String mode = Utils.getOrDefault(arguments, ARG_MODE, MODE_SNAPSHOT);
+        long duration = Long.parseLong(Utils.getOrDefault(arguments, ARG_DURATION, "60")) * 1000;
+        String format = Utils.getOrDefault(arguments, ARG_FORMAT, FORMAT_CSV);
+        String output = arguments.get(ARG_OUTPUT);
+        jmxConnection = new JMXConnection();
+        try {
+            logger.debug("Trying to initialize JMX Connection.");
+            jmxConnection.initialize(configuration);
+            perfManager = new PerfManager(new Manager(jmxConnection), jmxConnection);
+            Map<String, List<PerfConfiguration>> performanceItems = getPerformanceItems();
+            String[] servers = Utils.isEmpty(arguments.get(ARG_SERVER)) ? perfManager.getServers() : new String[]{arguments.get(ARG_SERVER)};
+            List<String> serversEnabled = enablePerformance(servers);
+            try (PerformanceExporter exporter = Utils.isEmpty(output) ? new PerformanceExporter(Channels.newChannel(System.out), PerformanceExporter.getFormat(format), "stdout")
+                    : new PerformanceExporter(new File(output), PerformanceExporter.getFormat(format))) {
+                switch (mode.toLowerCase()) {
+                    case MODE_SNAPSHOT:
+                        captureSnapshots(servers, performanceItems, duration, exporter);
+                        break;
+                    case MODE_SAMPLE:
+                        captureSamples(servers, performanceItems, duration, exporter);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown mode " + mode + ". Supported modes are " + MODE_SNAPSHOT + " and " + MODE_SAMPLE);
+                }
+            } finally {
+                for (String server : serversEnabled) {
+                    perfManager.disablePerformance(server);
+                }
+            }
+        } finally {
+            if (perfManager != null)
+                perfManager.destroy();
+            jmxConnection.destroy();
+        }
+    }
+
+    private Map<String, List<PerfConfiguration>> getPerformanceItems() {
+        Map<String, List<PerfConfiguration>> performanceItems = perfManager.getPerformanceConfiguration(configuration);
+        String item = arguments.get(ARG_ITEM);
+        if (!Utils.isEmpty(item)) {
+            if (!performanceItems.containsKey(item))
+                throw new OIMAdminException("Performance item " + item + " is not configured. Configured items: " + performanceItems.keySet());
+            return Collections.singletonMap(item, performanceItems.get(item));
+        }
+        if (performanceItems.isEmpty())
+            throw new OIMAdminException("No performance items have been configured using " + PerfManager.ATTR_PERFORMANCE_CONFIG_PREFIX
+                    + PerfManager.ATTR_PERFORMANCE_CONFIG_OPTIONS);
+        return performanceItems;
+    }
+
+    private List<String> enablePerformance(String[] servers) {
+        List<String> serversEnabled = new ArrayList<>();
+        Map<String, Boolean> performanceConfiguration = perfManager.performanceConfigurationForServer(servers);
+        for (String server : servers) {
+            if (!Boolean.TRUE.equals(performanceConfiguration.get(server))) {
+                logger.info("Enabling performance beans on server {}", server);
+                perfManager.enablePerformance(server);
+                serversEnabled.add(server);
+            }
+        }
+        return serversEnabled;
+    }
+
+    private static List<PerfConfiguration> getAllPerfConfigurations(Map<String, List<PerfConfiguration>> performanceItems) {
+        Set<PerfConfiguration> allPerfConfigurations = new LinkedHashSet<>();
+        for (List<PerfConfiguration> perfConfigurations : performanceItems.values()) {
+            allPerfConfigurations.addAll(perfConfigurations);
+        }
+        return new ArrayList<>(allPerfConfigurations);
+    }
+
+    private void captureSnapshots(String[] servers, Map<String, List<PerfConfiguration>> performanceItems, long duration, PerformanceExporter exporter) {
+        List<PerfConfiguration> perfConfigurations = getAllPerfConfigurations(performanceItems);
+        PerformanceSnapshotEngine snapshotEngine = perfManager.getSnapshotEngine();
+        logger.info("Capturing starting snapshot of {} items on servers {}", perfConfigurations.size(), servers);
+        Map<String, Map<PerfConfiguration, PerformanceData.Snapshot>> startSnapshots = snapshotEngine.capture(servers, perfConfigurations);
+        sleep(duration);
+        logger.info("Capturing ending snapshot of {} items on servers {}", perfConfigurations.size(), servers);
+        Map<String, Map<PerfConfiguration, PerformanceData.Snapshot>> endSnapshots = snapshotEngine.capture(servers, perfConfigurations);
+        for (String server : servers) {
+            for (Map.Entry<String, List<PerfConfiguration>> performanceItem : performanceItems.entrySet()) {
+                for (PerfConfiguration perfConfiguration : performanceItem.getValue()) {
+                    PerformanceData performanceData = new PerformanceData();
+                    performanceData.startSnapshot = startSnapshots.get(server).get(perfConfiguration);
+                    performanceData.endSnapshot = endSnapshots.get(server).get(perfConfiguration);
+                    exporter.export(server, performanceItem.getKey(), perfConfiguration, performanceData);
+                }
+            }
+        }
+    }
+
+    private void captureSamples(String[] servers, final Map<String, List<PerfConfiguration>> performanceItems, long duration, final PerformanceExporter exporter) {
+        List<PerfConfiguration> perfConfigurations = getAllPerfConfigurations(performanceItems);
+        List<PerformanceSampler> samplers = new ArrayList<>();
+        try {
+            for (final String server : servers) {
+                final PerformanceSampler sampler = Utils.isEmpty(arguments.get(ARG_INTERVAL)) ? new PerformanceSampler(perfManager, server, perfConfigurations, configuration)
+                        : new PerformanceSampler(perfManager, server, perfConfigurations, Long.parseLong(arguments.get(ARG_INTERVAL)), PerformanceSampler.DEFAULT_SAMPLE_WINDOW);
+                sampler.addListener(new PerformanceSampler.SampleListener() {
+                    @Override
+                    public void sampled(Map<PerfConfiguration, PerformanceData.Snapshot> snapshots, Map<PerfConfiguration, PerformanceTimeSeries.Interval> intervals) {
+                        for (Map.Entry<String, List<PerfConfiguration>> performanceItem : performanceItems.entrySet()) {
+                            for (PerfConfiguration perfConfiguration : performanceItem.getValue()) {
+                                PerformanceTimeSeries.Interval interval = intervals.get(perfConfiguration);
+                                if (interval != null)
+                                    exporter.export(server, performanceItem.getKey(), perfConfiguration, interval,
+                                            sampler.getTimeSeries(perfConfiguration).getLatencyHistogram());
+                            }
+                        }
+                    }
+                });
+                samplers.add(sampler);
+            }
+            logger.info("Sampling {} items on servers {} for {} ms", new Object[]{perfConfigurations.size(), servers, duration});
+            for (PerformanceSampler sampler : samplers) {
+                sampler.start();
+            }
+            sleep(duration);
+        } finally {
+            // Samples in progress are completed before the exporter is closed so that the last interval is not lost.
+            long stopTimeout = Long.parseLong(configuration.getProperty(PerformanceSnapshotEngine.ATTR_CAPTURE_TIMEOUT, "" + PerformanceSnapshotEngine.DEFAULT_CAPTURE_TIMEOUT));
+            for (PerformanceSampler sampler : samplers) {
+                sampler.stopAndWait(stopTimeout);
+            }
+        }
+    }
+
+    private static void sleep(long duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new OIMAdminException("Performance capture was interrupted", exception);
+        }
+    }
+}
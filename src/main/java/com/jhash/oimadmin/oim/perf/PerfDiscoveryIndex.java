@@ -0,0 +1,356 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.oim.perf;
+
+import com.jhash.oimadmin.Config;
+import com.jhash.oimadmin.OIMAdminException;
+import com.jhash.oimadmin.Utils;
+import com.jhash.oimadmin.oim.JMXConnection;
+import com.jhash.oimadmin.oim.JMXMetrics;
+import com.jhash.oimadmin.oim.OIMUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.*;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+public class PerfDiscoveryIndex {
+
+    public static final String DMS_DOMAIN = "oracle.dms";
+    public static final String DMS_LOCATION = "Location";
+    public static final ObjectName WEBLOGIC_DOMAIN_RUNTIME_SERVICE = createObjectName("com.bea:Name=DomainRuntimeService,Type=weblogic.management.mbeanservers.domainruntime.DomainRuntimeServiceMBean");
+
+    private static final Logger logger = LoggerFactory.getLogger(PerfDiscoveryIndex.class);
+    private static final String INDEX_SERVER_PREFIX = "server.";
+    private static final String INDEX_BEAN_PREFIX = "bean.";
+    private static final String INDEX_SEPARATOR = "|";
+    private final JMXConnection jmxConnection;
+    private final File indexFile;
+    // server name (lower case) -> DMS bean -> attribute prefixes that have _completed data point. Beans without any such
+    // attribute are retained with no attribute prefixes so that they are not inspected again.
+    private final Map<String, Map<ObjectName, List<String>>> index = new ConcurrentHashMap<>();
+    // Servers whose index has been discovered or checked against the beans available since connecting
+    private final Set<String> validatedServers = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final ExecutorService refreshExecutor = Utils.createExecutorService("Performance Discovery Refresh", 1);
+    private final JMXConnection.BeanRegistrationListener registrationListener = new JMXConnection.BeanRegistrationListener() {
+        @Override
+        public void registered(ObjectName beanName) {
+            beanRegistrationChanged(true, beanName);
+        }
+
+        @Override
+        public void unregistered(ObjectName beanName) {
+            beanRegistrationChanged(false, beanName);
+        }
+    };
+
+    public PerfDiscoveryIndex(JMXConnection jmxConnection) {
+        if (jmxConnection == null)
+            throw new NullPointerException("No JMX Connection provided for discovering performance beans");
+        this.jmxConnection = jmxConnection;
+        this.indexFile = getIndexFile(jmxConnection);
+        load();
+        jmxConnection.addBeanRegistrationListener(registrationListener);
+    }
+
+    private static ObjectName createObjectName(String name) {
+        try {
+            return new ObjectName(name);
+        } catch (MalformedObjectNameException exception) {
+            throw new OIMAdminException("Failed to create object name " + name, exception);
+        }
+    }
+
+    private static String getLocation(ObjectName beanName) {
+        return beanName == null ? null : beanName.getKeyProperty(DMS_LOCATION);
+    }
+
+    private static File getIndexFile(JMXConnection jmxConnection) {
+        Config.Configuration configuration = jmxConnection.getConfiguration();
+        if (configuration == null || configuration.getConfig() == null || Utils.isEmpty(configuration.getWorkArea())) {
+            logger.debug("No work area available for {}, performance bean discovery will not be persisted", jmxConnection);
+            return null;
+        }
+        String domain = getDomain(jmxConnection);
+        String version;
+        try {
+            version = OIMUtils.getOIMServerDetails(jmxConnection).Version;
+        } catch (Exception exception) {
+            logger.debug("Failed to get OIM version of " + jmxConnection + ", using connection's version", exception);
+            version = jmxConnection.getVersion() == null ? null : jmxConnection.getVersion().name;
+        }
+        String indexName = ("perf-" + domain + "-" + version).replaceAll("[^A-Za-z0-9._-]", "_") + ".properties";
+        return new File(configuration.getWorkArea() + File.separator + Config.VAL_WORK_AREA_CACHE + File.separator + indexName);
+    }
+
+    private static String getDomain(JMXConnection jmxConnection) {
+        try {
+            Object domainConfiguration = jmxConnection.getConnection().getAttribute(WEBLOGIC_DOMAIN_RUNTIME_SERVICE, "DomainConfiguration");
+            if (domainConfiguration instanceof ObjectName && !Utils.isEmpty(((ObjectName) domainConfiguration).getKeyProperty("Name")))
+                return ((ObjectName) domainConfiguration).getKeyProperty("Name");
+        } catch (Exception exception) {
+            logger.debug("Failed to get weblogic domain name using " + WEBLOGIC_DOMAIN_RUNTIME_SERVICE + ", using connection name", exception);
+        }
+        return jmxConnection.getName();
+    }
+
+    public Set<PerfConfiguration> getPerformanceConfiguration(String serverName, Comparator<PerfConfiguration> comparator) {
+        Set<PerfConfiguration> performanceConfiguration = new TreeSet<>(comparator);
+        for (Map.Entry<ObjectName, List<String>> beanAttributes : getServerIndex(serverName).entrySet()) {
+            JMXConnection.OIM_JMX_BEANS bean = new JMXConnection.OIM_JMX_BEANS(new ObjectInstance(beanAttributes.getKey(), null));
+            for (String attributeName : beanAttributes.getValue()) {
+                performanceConfiguration.add(new PerfConfiguration(null, bean, attributeName));
+            }
+        }
+        return performanceConfiguration;
+    }
+
+    // Discovers the performance beans of the server again, discarding what has been indexed so far.
+    public synchronized void refresh(String serverName) {
+        if (Utils.isEmpty(serverName))
+            return;
+        String serverKey = serverName.toLowerCase();
+        index.put(serverKey, discover(serverName));
+        validatedServers.add(serverKey);
+        save();
+    }
+
+    private Map<ObjectName, List<String>> getServerIndex(String serverName) {
+        if (Utils.isEmpty(serverName))
+            return Collections.emptyMap();
+        String serverKey = serverName.toLowerCase();
+        Map<ObjectName, List<String>> serverIndex = index.get(serverKey);
+        if (serverIndex == null || !validatedServers.contains(serverKey)) {
+            synchronized (this) {
+                serverIndex = index.get(serverKey);
+                if (serverIndex == null) {
+                    serverIndex = discover(serverName);
+                    index.put(serverKey, serverIndex);
+                    validatedServers.add(serverKey);
+                    save();
+                } else if (!validatedServers.contains(serverKey)) {
+                    validate(serverName, serverIndex);
+                    validatedServers.add(serverKey);
+                }
+            }
+        }
+        return serverIndex;
+    }
+
+    // Beans may have been deployed or removed while the index loaded from file was not being kept up to date. Only the
+    // beans that are not in the index are inspected.
+    private void validate(String serverName, Map<ObjectName, List<String>> serverIndex) {
+        Set<ObjectName> beanNames;
+        try {
+            beanNames = queryBeanNames(serverName);
+        } catch (Exception exception) {
+            logger.warn("Failed to validate performance beans of server " + serverName + ", using beans discovered earlier", exception);
+            return;
+        }
+        boolean changed = serverIndex.keySet().retainAll(beanNames);
+        int newBeans = 0;
+        for (ObjectName beanName : beanNames) {
+            if (!serverIndex.containsKey(beanName)) {
+                List<String> attributeNames = getPerformanceAttributes(beanName);
+                serverIndex.put(beanName, attributeNames == null ? new ArrayList<String>() : attributeNames);
+                newBeans++;
+                changed = true;
+            }
+        }
+        logger.debug("Validated performance beans of server {}, {} new beans, {} beans in index", new Object[]{serverName, newBeans, serverIndex.size()});
+        if (changed)
+            save();
+    }
+
+    private Map<ObjectName, List<String>> discover(String serverName) {
+        logger.debug("Discovering performance beans on server {}", serverName);
+        Set<ObjectName> beanNames = queryBeanNames(serverName);
+        Map<ObjectName, List<String>> serverIndex = new ConcurrentHashMap<>();
+        int performanceBeans = 0;
+        for (ObjectName beanName : beanNames) {
+            List<String> attributeNames = getPerformanceAttributes(beanName);
+            if (attributeNames != null && !attributeNames.isEmpty())
+                performanceBeans++;
+            serverIndex.put(beanName, attributeNames == null ? new ArrayList<String>() : attributeNames);
+        }
+        logger.debug("Discovered {} performance beans out of {} beans on server {}", new Object[]{performanceBeans, beanNames.size(), serverName});
+        return serverIndex;
+    }
+
+    private Set<ObjectName> queryBeanNames(String serverName) {
+        MBeanServerConnection connection = jmxConnection.getConnection(JMXConnection.WORKLOAD.MONITORING);
+        Set<ObjectName> beanNames = Collections.emptySet();
+        long startTime = System.nanoTime();
+        boolean success = false;
+        try {
+            try {
+                beanNames = connection.queryNames(new ObjectName(DMS_DOMAIN + ":" + DMS_LOCATION + "=" + serverName + ",*"), null);
+            } catch (MalformedObjectNameException exception) {
+                logger.debug("Failed to create query for performance beans on server " + serverName, exception);
+            }
+            if (beanNames.isEmpty()) {
+                // Location may differ in case from server name, fall back to filtering all the DMS bean names.
+                beanNames = new HashSet<>();
+                for (ObjectName beanName : connection.queryNames(new ObjectName(DMS_DOMAIN + ":*"), null)) {
+                    if (serverName.equalsIgnoreCase(getLocation(beanName)))
+                        beanNames.add(beanName);
+                }
+            }
+            success = true;
+        } catch (Exception exception) {
+            throw new OIMAdminException("Failed to locate performance beans on server " + serverName, exception);
+        } finally {
+            JMXMetrics.record(DMS_DOMAIN + ":" + DMS_LOCATION + "=" + serverName, JMXMetrics.OPERATION_QUERY_NAMES, startTime, success);
+        }
+        return beanNames;
+    }
+
+    private List<String> getPerformanceAttributes(ObjectName beanName) {
+        List<String> beanAttributeNames = jmxConnection.getAttributeNames(beanName);
+        if (beanAttributeNames == null)
+            return null;
+        List<String> attributeNames = new ArrayList<>();
+        String completedSuffix = PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS.beanNameSuffix;
+        for (String beanAttributeName : beanAttributeNames) {
+            if (beanAttributeName.endsWith(completedSuffix)) {
+                attributeNames.add(beanAttributeName.substring(0, beanAttributeName.indexOf(completedSuffix)));
+            }
+        }
+        return attributeNames;
+    }
+
+    private void beanRegistrationChanged(boolean registered, final ObjectName beanName) {
+        if (beanName == null || !DMS_DOMAIN.equals(beanName.getDomain()))
+            return;
+        String location = getLocation(beanName);
+        if (location == null)
+            return;
+        final Map<ObjectName, List<String>> serverIndex = index.get(location.toLowerCase());
+        if (serverIndex == null)
+            return;
+        logger.trace("Processing (un)registration({}) of performance bean {}", registered, beanName);
+        if (!registered) {
+            if (serverIndex.remove(beanName) != null)
+                saveAsync();
+        } else {
+            // Notifications are delivered on the connector's thread which must not be used for remote calls.
+            refreshExecutor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        List<String> attributeNames = getPerformanceAttributes(beanName);
+                        if (attributeNames != null) {
+                            serverIndex.put(beanName, attributeNames);
+                            save();
+                        }
+                    } catch (Exception exception) {
+                        logger.warn("Failed to index performance bean " + beanName, exception);
+                    }
+                }
+            });
+        }
+    }
+
+    private void saveAsync() {
+        refreshExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                save();
+            }
+        });
+    }
+
+    private synchronized void load() {
+        if (indexFile == null || !indexFile.exists())
+            return;
+        logger.debug("Loading performance bean discovery from {}", indexFile);
+        Properties indexProperties = new Properties();
+        try (InputStream indexStream = new BufferedInputStream(new FileInputStream(indexFile))) {
+            indexProperties.load(indexStream);
+        } catch (Exception exception) {
+            logger.warn("Failed to load performance bean discovery from " + indexFile + ". Ignoring the file.", exception);
+            return;
+        }
+        for (String key : indexProperties.stringPropertyNames()) {
+            if (key.startsWith(INDEX_SERVER_PREFIX)) {
+                getOrCreate(key.substring(INDEX_SERVER_PREFIX.length()));
+            } else if (key.startsWith(INDEX_BEAN_PREFIX) && key.contains(INDEX_SEPARATOR)) {
+                String serverKey = key.substring(INDEX_BEAN_PREFIX.length(), key.indexOf(INDEX_SEPARATOR));
+                String value = indexProperties.getProperty(key);
+                try {
+                    ObjectName beanName = new ObjectName(key.substring(key.indexOf(INDEX_SEPARATOR) + 1));
+                    getOrCreate(serverKey).put(beanName, Utils.isEmpty(value) ? new ArrayList<String>() : new ArrayList<>(Arrays.asList(value.split(","))));
+                } catch (Exception exception) {
+                    logger.debug("Ignoring invalid performance bean discovery entry " + key, exception);
+                }
+            }
+        }
+        logger.debug("Loaded performance beans of servers {}", index.keySet());
+    }
+
+    private Map<ObjectName, List<String>> getOrCreate(String serverKey) {
+        Map<ObjectName, List<String>> serverIndex = index.get(serverKey);
+        if (serverIndex == null) {
+            serverIndex = new ConcurrentHashMap<>();
+            index.put(serverKey, serverIndex);
+        }
+        return serverIndex;
+    }
+
+    private synchronized void save() {
+        if (indexFile == null)
+            return;
+        Properties indexProperties = new Properties();
+        for (Map.Entry<String, Map<ObjectName, List<String>>> serverIndex : index.entrySet()) {
+            indexProperties.setProperty(INDEX_SERVER_PREFIX + serverIndex.getKey(), "" + serverIndex.getValue().size());
+            for (Map.Entry<ObjectName, List<String>> beanAttributes : serverIndex.getValue().entrySet()) {
+                StringBuilder attributeNames = new StringBuilder();
+                for (String attributeName : beanAttributes.getValue()) {
+                    if (attributeNames.length() > 0)
+                        attributeNames.append(",");
+                    attributeNames.append(attributeName);
+                }
+                indexProperties.setProperty(INDEX_BEAN_PREFIX + serverIndex.getKey() + INDEX_SEPARATOR + beanAttributes.getKey().getCanonicalName(),
+                        attributeNames.toString());
+            }
+        }
+        File indexDirectory = indexFile.getParentFile();
+        if (!indexDirectory.exists() && !indexDirectory.mkdirs()) {
+            logger.warn("Failed to create directory {} to save performance bean discovery", indexDirectory);
+            return;
+        }
+        File temporaryFile = new File(indexDirectory, indexFile.getName() + ".tmp");
+        try (OutputStream indexStream = new BufferedOutputStream(new FileOutputStream(temporaryFile))) {
+            indexProperties.store(indexStream, "Performance beans discovered on " + jmxConnection.getName());
+        } catch (Exception exception) {
+            logger.warn("Failed to save performance bean discovery to " + temporaryFile, exception);
+            return;
+        }
+        if (indexFile.exists() && !indexFile.delete())
+            logger.warn("Failed to replace performance bean discovery file {}", indexFile);
+        else if (!temporaryFile.renameTo(indexFile))
+            logger.warn("Failed to rename {} to {}", temporaryFile, indexFile);
+    }
+
+    public void destroy() {
+        jmxConnection.removeBeanRegistrationListener(registrationListener);
+        refreshExecutor.shutdownNow();
+    }
+}
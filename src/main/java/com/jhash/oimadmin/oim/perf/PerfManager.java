@@ -52,6 +52,8 @@ public class PerfManager {
     private static final Logger logger = LoggerFactory.getLogger(OrchManager.class);
     private final JMXConnection jmxConnection;
     private final Manager eventHandlerManager;
+    private PerformanceSnapshotEngine snapshotEngine;
+    private PerfDiscoveryIndex discoveryIndex;
 
     public PerfManager(Manager eventHandlerManager, JMXConnection jmxConnection) {
         this.jmxConnection = jmxConnection;
@@ -59,10 +61,16 @@ public class PerfManager {
     }
 
     public Map<String, Boolean> performanceConfigurationForServer() {
+        return performanceConfigurationForServer(OIMUtils.getOIMServerDetails(jmxConnection).Servers);
+    }
+
+    // Returns the configuration of given servers, or of all the servers with performance configuration bean if none is given.
+    public Map<String, Boolean> performanceConfigurationForServer(String... servers) {
         final Map<String, Boolean> applicableValues = new HashMap<>();
-        jmxConnection.invoke(DMS_CONFIG_MBEAN, new JMXConnection.ProcessBeanType() {
+        // Route status of each server is read concurrently.
+        List<Map.Entry<String, Boolean>> serverRouteStatus = jmxConnection.invokeParallel(DMS_CONFIG_MBEAN, new JMXConnection.ProcessBeanFunction<Map.Entry<String, Boolean>>() {
             @Override
-            public void execute(JMXConnection.ProcessingBean bean) {
+            public Map.Entry<String, Boolean> execute(JMXConnection.ProcessingBean bean) {
                 Map<String, String> beanProperties = bean.getProperties();
                 logger.trace("Processing bean {}", beanProperties);
                 if (beanProperties.containsKey("ServerName")) { // this give server specific beans.
@@ -81,13 +89,17 @@ public class PerfManager {
                                 + CompositeData.class + ". Found " + (routeStatusElementValues == null ? "null" : routeStatusElementValues.getClass())
                                 + " Bean: " + beanProperties);
                     }
-                    applicableValues.put(beanProperties.get("ServerName"), JMXUtils.<Boolean>extractData(
+                    return new AbstractMap.SimpleEntry<>(beanProperties.get("ServerName"), JMXUtils.<Boolean>extractData(
                             (TabularData) JMXUtils.extractData(
                                     (CompositeData) routeStatusElementValues).get("value")).get("mbeanCreationDestination"));
                 }
+                return null;
             }
         });
-        String[] servers = OIMUtils.getOIMServerDetails(jmxConnection).Servers;
+        for (Map.Entry<String, Boolean> routeStatus : serverRouteStatus) {
+            if (routeStatus != null)
+                applicableValues.put(routeStatus.getKey(), routeStatus.getValue());
+        }
         if (servers != null && servers.length > 0) {
             Map<String, Boolean> serverConfiguration = new HashMap<>();
             for (String server : servers) {
@@ -132,14 +144,8 @@ public class PerfManager {
 
     public Map<String, List<PerfConfiguration>> getPerformanceConfiguration(Config.Configuration configuration) {
         Map<String, List<PerfConfiguration>> performanceConfiguration = new HashMap<>();
-        logger.debug("Trying to retrieve OIM Operations available");
-        Map<String, OperationDetail> eventHandlerOperations = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-        if (eventHandlerManager != null) {
-            Set<OperationDetail> eventHandlerOperationDetails = eventHandlerManager.getOperations();
-            for (OperationDetail operationDetail : eventHandlerOperationDetails) {
-                eventHandlerOperations.put(operationDetail.name, operationDetail);
-            }
-        }
+        // Operations are read only if an event handler is configured so that api and adapter items do not need OIM beans.
+        Map<String, OperationDetail> eventHandlerOperations = null;
         String options = configuration.getProperty(ATTR_PERFORMANCE_CONFIG_PREFIX + ATTR_PERFORMANCE_CONFIG_OPTIONS);
         if (!Utils.isEmpty(options)) {
             logger.debug("Trying to extract performance items from given options {}", options);
@@ -181,6 +187,8 @@ public class PerfManager {
                                     logger.trace("Validating operation name {}", operationName);
                                     if (Utils.isEmpty(operationName))
                                         throw new NullPointerException("Failed to locate " + attPrefix + ATTR_PERFORMANCE_CONFIG_NAME + " property for " + displayName + " event handler.");
+                                    if (eventHandlerOperations == null)
+                                        eventHandlerOperations = getEventHandlerOperations();
                                     logger.trace("Retrieving operation for name {}", operationName);
                                     OperationDetail operation;
                                     if ((operation = eventHandlerOperations.get(operationName)) != null) {
@@ -228,53 +236,120 @@ public class PerfManager {
         return performanceConfiguration;
     }
 
+    private Map<String, OperationDetail> getEventHandlerOperations() {
+        logger.debug("Trying to retrieve OIM Operations available");
+        Map<String, OperationDetail> eventHandlerOperations = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (eventHandlerManager != null) {
+            Set<OperationDetail> eventHandlerOperationDetails = eventHandlerManager.getOperations();
+            for (OperationDetail operationDetail : eventHandlerOperationDetails) {
+                eventHandlerOperations.put(operationDetail.name, operationDetail);
+            }
+        }
+        return eventHandlerOperations;
+    }
 
     public Set<PerfConfiguration> getPerformanceConfiguration(final String serverName) {
-        final Set<PerfConfiguration> allPerformanceConfiguration = new TreeSet<>(new CASE_INSENSITIVE_COMPARATOR());
-        jmxConnection.invoke(ALL_DMS_PERF_MBEANS, new JMXConnection.ProcessBeanType() {
+        return getDiscoveryIndex().getPerformanceConfiguration(serverName, new CASE_INSENSITIVE_COMPARATOR());
+    }
+
+    public void rediscoverPerformanceConfiguration(String serverName) {
+        getDiscoveryIndex().refresh(serverName);
+    }
+
+    public PerformanceData.Snapshot capturePerformanceData(final String serverName, final PerfConfiguration perfConfiguration) {
+        return capturePerformanceData(serverName, Collections.singletonList(perfConfiguration)).get(perfConfiguration);
+    }
+
+    public Map<PerfConfiguration, PerformanceData.Snapshot> capturePerformanceData(final String serverName, final List<PerfConfiguration> perfConfigurations) {
+        Map<PerfConfiguration, PerformanceData.Snapshot> performanceSnapshots = new HashMap<>();
+        if (perfConfigurations == null || perfConfigurations.isEmpty())
+            return performanceSnapshots;
+        Map<JMXConnection.OIM_JMX_BEANS, Set<PerfConfiguration>> perfConfigurationsByBean = groupByBean(perfConfigurations);
+        for (Map.Entry<JMXConnection.OIM_JMX_BEANS, Set<PerfConfiguration>> perfConfigurationsForBean : perfConfigurationsByBean.entrySet()) {
+            performanceSnapshots.putAll(capturePerformanceData(serverName, perfConfigurationsForBean.getKey(), perfConfigurationsForBean.getValue()));
+        }
+        return performanceSnapshots;
+    }
+
+    static Map<JMXConnection.OIM_JMX_BEANS, Set<PerfConfiguration>> groupByBean(List<PerfConfiguration> perfConfigurations) {
+        Map<JMXConnection.OIM_JMX_BEANS, Set<PerfConfiguration>> perfConfigurationsByBean = new LinkedHashMap<>();
+        for (PerfConfiguration perfConfiguration : perfConfigurations) {
+            Set<PerfConfiguration> beanPerfConfigurations = perfConfigurationsByBean.get(perfConfiguration.mBean);
+            if (beanPerfConfigurations == null) {
+                beanPerfConfigurations = new LinkedHashSet<>();
+                perfConfigurationsByBean.put(perfConfiguration.mBean, beanPerfConfigurations);
+            }
+            beanPerfConfigurations.add(perfConfiguration);
+        }
+        return perfConfigurationsByBean;
+    }
+
+    public String[] getServers() {
+        return OIMUtils.getOIMServerDetails(jmxConnection).Servers;
+    }
+
+    public synchronized PerformanceSnapshotEngine getSnapshotEngine() {
+        if (snapshotEngine == null)
+            snapshotEngine = new PerformanceSnapshotEngine(this, jmxConnection.getConfiguration());
+        return snapshotEngine;
+    }
+
+    public synchronized PerfDiscoveryIndex getDiscoveryIndex() {
+        if (discoveryIndex == null)
+            discoveryIndex = new PerfDiscoveryIndex(jmxConnection);
+        return discoveryIndex;
+    }
+
+    // Releases the capture threads and the bean registration listener, which otherwise keeps the JMX connection alive.
+    public synchronized void destroy() {
+        logger.debug("Destroying performance manager of {}", jmxConnection);
+        if (snapshotEngine != null) {
+            snapshotEngine.destroy();
+            snapshotEngine = null;
+        }
+        if (discoveryIndex != null) {
+            discoveryIndex.destroy();
+            discoveryIndex = null;
+        }
+    }
+
+    Map<PerfConfiguration, PerformanceData.Snapshot> capturePerformanceData(final String serverName, final JMXConnection.OIM_JMX_BEANS mBean,
+                                                                                    final Set<PerfConfiguration> perfConfigurations) {
+        final List<String> attributeNames = new ArrayList<>();
+        for (PerfConfiguration perfConfiguration : perfConfigurations) {
+            for (PerfConfiguration.DATA_POINT data_point : PerfConfiguration.DATA_POINT.values()) {
+                attributeNames.add(perfConfiguration.attributeName + data_point.beanNameSuffix);
+            }
+        }
+        final List<Map<String, Object>> performanceDataValues = new ArrayList<>();
+        final long[] captureTime = new long[]{System.currentTimeMillis()};
+        logger.trace("Capturing attributes {} of bean {} on server {}", new Object[]{attributeNames, mBean, serverName});
+        jmxConnection.invoke(JMXConnection.WORKLOAD.MONITORING, mBean, new JMXConnection.ProcessBeanType() {
             @Override
             public void execute(JMXConnection.ProcessingBean bean) {
                 logger.trace("Processing bean {}", bean);
                 if (bean.getProperties().containsKey("Location") && bean.getProperties().get("Location").equalsIgnoreCase(serverName)) {
-                    List<String> beanAttributeNames = bean.getAttributeNames();
-                    if (beanAttributeNames != null) {
-                        for (String beanAttributeName : beanAttributeNames) {
-                            if (beanAttributeName.endsWith(PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS.beanNameSuffix)) {
-                                String attributeName = beanAttributeName.substring(0, beanAttributeName.indexOf(PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS.beanNameSuffix));
-                                logger.trace("Adding performance attribute {} for bean {}", attributeName, bean.getBean());
-                                PerfConfiguration perfConfiguration = new PerfConfiguration(null, bean.getBean(), attributeName);
-                                allPerformanceConfiguration.add(perfConfiguration);
-                            }
-                        }
-                    }
+                    if (performanceDataValues.isEmpty())
+                        captureTime[0] = System.currentTimeMillis();
+                    performanceDataValues.add(bean.getValues(attributeNames.toArray(new String[attributeNames.size()])));
                 }
             }
         });
-        return allPerformanceConfiguration;
-    }
-
-    public PerformanceData.Snapshot capturePerformanceData(final String serverName, final PerfConfiguration perfConfiguration) {
-        Map<PerfConfiguration.DATA_POINT, Object> performanceData = new HashMap<>();
-        for (PerfConfiguration.DATA_POINT data_point : PerfConfiguration.DATA_POINT.values()) {
-            final PerfConfiguration.DATA_POINT processingDataPoint = data_point;
-            final List<Object> performanceDataValue = new ArrayList<>();
-            jmxConnection.invoke(perfConfiguration.mBean, new JMXConnection.ProcessBeanType() {
-                @Override
-                public void execute(JMXConnection.ProcessingBean bean) {
-                    logger.trace("Processing bean {}", bean);
-                    if (bean.getProperties().containsKey("Location") && bean.getProperties().get("Location").equalsIgnoreCase(serverName)) {
-                        performanceDataValue.add(bean.getValue(perfConfiguration.attributeName + processingDataPoint.beanNameSuffix));
-                    }
-                }
-            });
-            if (performanceDataValue.size() == 1)
-                performanceData.put(data_point, performanceDataValue.get(0));
-            else if (performanceDataValue.size() > 1) {
-                logger.warn("Performance capture: Found {} beans corresponding to {} while capturing data for {}. Using first value identified.", new Object[]{performanceDataValue.size(), perfConfiguration.mBean, perfConfiguration.attributeName});
-                performanceData.put(data_point, performanceDataValue.get(0));
+        if (performanceDataValues.size() > 1) {
+            logger.warn("Performance capture: Found {} beans corresponding to {} while capturing data for {}. Using first value identified.", new Object[]{performanceDataValues.size(), mBean, perfConfigurations});
+        }
+        Map<String, Object> performanceDataValue = performanceDataValues.isEmpty() || performanceDataValues.get(0) == null ? new HashMap<String, Object>() : performanceDataValues.get(0);
+        Map<PerfConfiguration, PerformanceData.Snapshot> performanceSnapshots = new HashMap<>();
+        for (PerfConfiguration perfConfiguration : perfConfigurations) {
+            Map<PerfConfiguration.DATA_POINT, Object> performanceData = new EnumMap<>(PerfConfiguration.DATA_POINT.class);
+            for (PerfConfiguration.DATA_POINT data_point : PerfConfiguration.DATA_POINT.values()) {
+                String attributeName = perfConfiguration.attributeName + data_point.beanNameSuffix;
+                if (performanceDataValue.containsKey(attributeName))
+                    performanceData.put(data_point, performanceDataValue.get(attributeName));
             }
+            performanceSnapshots.put(perfConfiguration, new PerformanceData.Snapshot(performanceData, captureTime[0]));
         }
-        return new PerformanceData.Snapshot(performanceData);
+        return performanceSnapshots;
     }
 
     private class CASE_INSENSITIVE_COMPARATOR implements Comparator<PerfConfiguration> {
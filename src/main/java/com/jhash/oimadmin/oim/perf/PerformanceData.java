@@ -16,7 +16,6 @@
 
 package com.jhash.oimadmin.oim.perf;
 
-import java.util.HashMap;
 import java.util.Map;
 
 public class PerformanceData {
@@ -26,8 +25,8 @@ public class PerformanceData {
     @Override
     public String toString() {
         if (endSnapshot != null && startSnapshot != null
-                && endSnapshot.get(PerfConfiguration.DATA_POINT.TOTAL_TRANSACTION_TIME) != null
-                && endSnapshot.get(PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS) != null) {
+                && endSnapshot.contains(PerfConfiguration.DATA_POINT.TOTAL_TRANSACTION_TIME)
+                && endSnapshot.contains(PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS)) {
             long totalTransactionsDuringTest = endSnapshot.getAsLong(PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS) - startSnapshot.getAsLong(PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS);
             if (totalTransactionsDuringTest > 0) {
                 return "" + ((endSnapshot.getAsLong(PerfConfiguration.DATA_POINT.TOTAL_TRANSACTION_TIME) - startSnapshot.getAsLong(PerfConfiguration.DATA_POINT.TOTAL_TRANSACTION_TIME))
@@ -35,9 +34,9 @@ public class PerformanceData {
             } else {
                 return "No Change";
             }
-        } else if (endSnapshot != null && endSnapshot.get(PerfConfiguration.DATA_POINT.AVG) != null) {
+        } else if (endSnapshot != null && endSnapshot.contains(PerfConfiguration.DATA_POINT.AVG)) {
             return endSnapshot.get(PerfConfiguration.DATA_POINT.AVG);
-        } else if (startSnapshot != null && startSnapshot.get(PerfConfiguration.DATA_POINT.AVG) != null) {
+        } else if (startSnapshot != null && startSnapshot.contains(PerfConfiguration.DATA_POINT.AVG)) {
             return startSnapshot.get(PerfConfiguration.DATA_POINT.AVG);
         } else {
             return "";
@@ -45,43 +44,70 @@ public class PerformanceData {
     }
 
     public static class Snapshot {
-        private Map<PerfConfiguration.DATA_POINT, Object> snapShot;
+        private static final int DATA_POINTS = PerfConfiguration.DATA_POINT.values().length;
+        public final long captureTime;
+        private final long[] values = new long[DATA_POINTS];
+        private int availableDataPoints = 0;
+        private int decimalDataPoints = 0;
 
         public Snapshot(Map<PerfConfiguration.DATA_POINT, Object> snapShot) {
-            this.snapShot = snapShot == null ? new HashMap<PerfConfiguration.DATA_POINT, Object>() : snapShot;
+            this(snapShot, System.currentTimeMillis());
         }
 
-        public String get(PerfConfiguration.DATA_POINT data_point) {
-            if (data_point == null)
-                return "";
-            Object value;
-            if ((value = snapShot.get(data_point)) != null)
-                return value.toString();
-            else
-                return "";
+        public Snapshot(Map<PerfConfiguration.DATA_POINT, Object> snapShot, long captureTime) {
+            this.captureTime = captureTime;
+            if (snapShot != null) {
+                for (Map.Entry<PerfConfiguration.DATA_POINT, Object> dataPointValue : snapShot.entrySet()) {
+                    if (dataPointValue.getKey() != null)
+                        setValue(dataPointValue.getKey().ordinal(), dataPointValue.getValue());
+                }
+            }
         }
 
-        public long getAsLong(PerfConfiguration.DATA_POINT data_point) {
-            if (data_point == null)
-                return 0;
-            Object value;
-            if ((value = snapShot.get(data_point)) instanceof Long)
-                return (long) value;
-            else if (value instanceof Integer) {
-                return (long) (int) (Integer) value;
+        private void setValue(int dataPointIndex, Object value) {
+            int dataPointMask = 1 << dataPointIndex;
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                values[dataPointIndex] = ((Number) value).longValue();
+            } else if (value instanceof Number) {
+                values[dataPointIndex] = Double.doubleToRawLongBits(((Number) value).doubleValue());
+                decimalDataPoints |= dataPointMask;
             } else if (value instanceof String) {
                 try {
-                    Long valueAsLong = Long.parseLong((String) value);
-                    if (valueAsLong != null)
-                        return valueAsLong;
-                    else
-                        return 0;
-                } catch (Exception exception) {
-                    return 0;
+                    values[dataPointIndex] = Long.parseLong((String) value);
+                } catch (NumberFormatException exception) {
+                    try {
+                        values[dataPointIndex] = Double.doubleToRawLongBits(Double.parseDouble((String) value));
+                        decimalDataPoints |= dataPointMask;
+                    } catch (NumberFormatException decimalException) {
+                        return;
+                    }
                 }
-            } else
-                return 0;
+            } else {
+                return;
+            }
+            availableDataPoints |= dataPointMask;
+        }
+
+        public boolean contains(PerfConfiguration.DATA_POINT data_point) {
+            return data_point != null && (availableDataPoints & (1 << data_point.ordinal())) != 0;
+        }
 
+        public String get(PerfConfiguration.DATA_POINT data_point) {
+            if (!contains(data_point))
+                return "";
+            int dataPointIndex = data_point.ordinal();
+            if ((decimalDataPoints & (1 << dataPointIndex)) != 0)
+                return Double.toString(Double.longBitsToDouble(values[dataPointIndex]));
+            return Long.toString(values[dataPointIndex]);
+        }
+
+        public long getAsLong(PerfConfiguration.DATA_POINT data_point) {
+            if (!contains(data_point))
+                return 0;
+            int dataPointIndex = data_point.ordinal();
+            if ((decimalDataPoints & (1 << dataPointIndex)) != 0)
+                return (long) Double.longBitsToDouble(values[dataPointIndex]);
+            return values[dataPointIndex];
         }
     }
 }
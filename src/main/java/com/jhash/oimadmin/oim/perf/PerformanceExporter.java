@@ -0,0 +1,402 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.oim.perf;
+
+import com.jhash.oimadmin.LatencyHistogram;
+import com.jhash.oimadmin.OIMAdminException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class PerformanceExporter implements Closeable {
+
+    public static final Format CSV = new CSVFormat();
+    public static final Format NDJSON = new NDJSONFormat();
+    public static final String TYPE_SNAPSHOT = "snapshot";
+    public static final String TYPE_INTERVAL = "interval";
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    public static final int DEFAULT_QUEUE_SIZE = 10000;
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceExporter.class);
+    private static final String END_OF_EXPORT = new String("END_OF_EXPORT");
+    private final WritableByteChannel channel;
+    private final Format format;
+    private final String name;
+    private final BlockingQueue<String> pendingRecords;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final Thread writerThread;
+    private volatile IOException writeFailure;
+    private boolean closed = false;
+
+    public PerformanceExporter(File file, Format format) throws IOException {
+        this(FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+                format, file.getAbsolutePath());
+    }
+
+    public PerformanceExporter(WritableByteChannel channel, Format format, String name) {
+        this(channel, format, name, DEFAULT_BUFFER_SIZE, DEFAULT_QUEUE_SIZE);
+    }
+
+    public PerformanceExporter(WritableByteChannel channel, Format format, String name, int bufferSize, int queueSize) {
+        if (channel == null || format == null)
+            throw new NullPointerException("Channel and format are needed for exporting performance data");
+        this.channel = channel;
+        this.format = format;
+        this.name = name;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize > 0 ? bufferSize : DEFAULT_BUFFER_SIZE);
+        this.pendingRecords = new ArrayBlockingQueue<>(queueSize > 0 ? queueSize : DEFAULT_QUEUE_SIZE);
+        String header = format.getHeader();
+        if (header != null)
+            pendingRecords.add(header);
+        // Records are formatted by the capturing thread and written by a dedicated thread so that capture never waits on I/O.
+        writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeRecords();
+            }
+        }, "Performance Exporter " + name);
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public static Format getFormat(String formatName) {
+        if (formatName == null)
+            return CSV;
+        switch (formatName.toLowerCase()) {
+            case "json":
+            case "ndjson":
+                return NDJSON;
+            case "csv":
+                return CSV;
+            default:
+                throw new IllegalArgumentException("Unknown export format " + formatName + ". Supported formats are csv and ndjson");
+        }
+    }
+
+    public static Format getFormat(File file) {
+        String fileName = file.getName().toLowerCase();
+        return fileName.endsWith(".json") || fileName.endsWith(".ndjson") ? NDJSON : CSV;
+    }
+
+    public void export(String server, String item, PerfConfiguration perfConfiguration, PerformanceData performanceData) {
+        if (performanceData == null || (performanceData.startSnapshot == null && performanceData.endSnapshot == null))
+            return;
+        Record record = new Record(TYPE_SNAPSHOT, server, item, perfConfiguration.displayName);
+        PerformanceData.Snapshot startSnapshot = performanceData.startSnapshot, endSnapshot = performanceData.endSnapshot;
+        if (startSnapshot != null)
+            record.start = startSnapshot.captureTime;
+        if (endSnapshot != null) {
+            record.end = endSnapshot.captureTime;
+            if (endSnapshot.contains(PerfConfiguration.DATA_POINT.MIN))
+                record.minimum = endSnapshot.get(PerfConfiguration.DATA_POINT.MIN);
+            if (endSnapshot.contains(PerfConfiguration.DATA_POINT.MAX))
+                record.maximum = endSnapshot.get(PerfConfiguration.DATA_POINT.MAX);
+        }
+        if (startSnapshot != null && endSnapshot != null && startSnapshot.contains(PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS)
+                && endSnapshot.contains(PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS)) {
+            long completed = endSnapshot.getAsLong(PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS) - startSnapshot.getAsLong(PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS);
+            long time = endSnapshot.getAsLong(PerfConfiguration.DATA_POINT.TOTAL_TRANSACTION_TIME) - startSnapshot.getAsLong(PerfConfiguration.DATA_POINT.TOTAL_TRANSACTION_TIME);
+            record.setTransactions(completed, time);
+        }
+        export(record);
+    }
+
+    public void export(String server, String item, PerfConfiguration perfConfiguration, PerformanceTimeSeries.Interval interval) {
+        export(server, item, perfConfiguration, interval, null);
+    }
+
+    // Percentiles are taken from the latency histogram (if any) of the time series the interval belongs to
+    public void export(String server, String item, PerfConfiguration perfConfiguration, PerformanceTimeSeries.Interval interval,
+                       LatencyHistogram latencyHistogram) {
+        if (interval == null)
+            return;
+        Record record = new Record(TYPE_INTERVAL, server, item, perfConfiguration.displayName);
+        record.start = interval.start;
+        record.end = interval.end;
+        record.setTransactions(interval.completedTransactions, interval.transactionTime);
+        record.setPercentiles(latencyHistogram);
+        export(record);
+    }
+
+    public void export(String server, String item, PerfConfiguration perfConfiguration, PerformanceTimeSeries timeSeries) {
+        if (timeSeries == null)
+            return;
+        LatencyHistogram latencyHistogram = timeSeries.getLatencyHistogram();
+        for (PerformanceTimeSeries.Interval interval : timeSeries.getIntervals()) {
+            export(server, item, perfConfiguration, interval, latencyHistogram);
+        }
+    }
+
+    public void export(Record record) {
+        String formattedRecord = format.format(record);
+        if (writeFailure != null)
+            throw new OIMAdminException("Failed to export performance data to " + name, writeFailure);
+        synchronized (this) {
+            if (closed)
+                throw new IllegalStateException("Performance export to " + name + " has already been closed");
+            try {
+                pendingRecords.put(formattedRecord);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new OIMAdminException("Interrupted while exporting performance data to " + name, exception);
+            }
+        }
+    }
+
+    private void writeRecords() {
+        try {
+            while (true) {
+                // Wait for the next record only when nothing else is queued, which is also the time to push the buffer out.
+                String record = pendingRecords.poll();
+                if (record == null) {
+                    flushBuffer();
+                    record = pendingRecords.take();
+                }
+                if (record == END_OF_EXPORT)
+                    break;
+                encode(record);
+            }
+            flushBuffer();
+        } catch (IOException exception) {
+            logger.warn("Failed to write performance data to " + name, exception);
+            writeFailure = exception;
+            pendingRecords.clear();
+        } catch (InterruptedException exception) {
+            logger.debug("Performance export to {} was interrupted", name);
+        }
+    }
+
+    private void encode(String record) throws IOException {
+        CharBuffer characters = CharBuffer.wrap(record);
+        while (true) {
+            CoderResult result = encoder.encode(characters, buffer, true);
+            if (result.isOverflow()) {
+                flushBuffer();
+            } else if (result.isUnderflow()) {
+                encoder.reset();
+                return;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+        }
+        logger.debug("Closing performance export to {}", name);
+        try {
+            if (writeFailure == null)
+                pendingRecords.put(END_OF_EXPORT);
+            writerThread.join(TimeUnit.MINUTES.toMillis(1));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            writerThread.interrupt();
+        } finally {
+            channel.close();
+        }
+        if (writeFailure != null)
+            throw writeFailure;
+    }
+
+    @Override
+    public String toString() {
+        return "PerformanceExporter [" + name + "]";
+    }
+
+    public interface Format {
+
+        String getHeader();
+
+        String format(Record record);
+    }
+
+    public static class Record {
+        public final String type;
+        public final String server;
+        public final String item;
+        public final String name;
+        public long start = -1;
+        public long end = -1;
+        public long transactions = -1;
+        public long totalTime = -1;
+        public long average = -1;
+        public double throughput = -1;
+        public long percentile50 = -1;
+        public long percentile95 = -1;
+        public long percentile99 = -1;
+        public String minimum;
+        public String maximum;
+
+        public Record(String type, String server, String item, String name) {
+            this.type = type;
+            this.server = server;
+            this.item = item;
+            this.name = name;
+        }
+
+        void setTransactions(long completed, long time) {
+            transactions = completed;
+            totalTime = time;
+            average = completed > 0 ? time / completed : 0;
+            if (start >= 0 && end > start)
+                throughput = (completed * 1000.0) / (end - start);
+        }
+
+        void setPercentiles(LatencyHistogram latencyHistogram) {
+            if (latencyHistogram == null || latencyHistogram.getTotalCount() == 0)
+                return;
+            percentile50 = latencyHistogram.getPercentile(50);
+            percentile95 = latencyHistogram.getPercentile(95);
+            percentile99 = latencyHistogram.getPercentile(99);
+        }
+    }
+
+    static class CSVFormat implements Format {
+
+        private static String escape(String value) {
+            if (value == null)
+                return "";
+            if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r"))
+                return "\"" + value.replace("\"", "\"\"") + "\"";
+            return value;
+        }
+
+        private static String toString(long value) {
+            return value < 0 ? "" : Long.toString(value);
+        }
+
+        @Override
+        public String getHeader() {
+            return "type,server,item,name,start,end,transactions,total_time,average,throughput,p50,p95,p99,minimum,maximum\n";
+        }
+
+        @Override
+        public String format(Record record) {
+            return new StringBuilder(128).append(record.type).append(',').append(escape(record.server)).append(',')
+                    .append(escape(record.item)).append(',').append(escape(record.name)).append(',')
+                    .append(toString(record.start)).append(',').append(toString(record.end)).append(',')
+                    .append(toString(record.transactions)).append(',').append(toString(record.totalTime)).append(',')
+                    .append(toString(record.average)).append(',').append(record.throughput < 0 ? "" : String.format(Locale.ROOT, "%.3f", record.throughput)).append(',')
+                    .append(toString(record.percentile50)).append(',').append(toString(record.percentile95)).append(',')
+                    .append(toString(record.percentile99)).append(',').append(escape(record.minimum)).append(',').append(escape(record.maximum)).append('\n').toString();
+        }
+    }
+
+    static class NDJSONFormat implements Format {
+
+        private static void quote(StringBuilder builder, String value) {
+            if (value == null) {
+                builder.append("null");
+                return;
+            }
+            builder.append('"');
+            for (int index = 0; index < value.length(); index++) {
+                char character = value.charAt(index);
+                switch (character) {
+                    case '"':
+                        builder.append("\\\"");
+                        break;
+                    case '\\':
+                        builder.append("\\\\");
+                        break;
+                    case '\n':
+                        builder.append("\\n");
+                        break;
+                    case '\r':
+                        builder.append("\\r");
+                        break;
+                    case '\t':
+                        builder.append("\\t");
+                        break;
+                    default:
+                        if (character < 0x20)
+                            builder.append(String.format("\\u%04x", (int) character));
+                        else
+                            builder.append(character);
+                }
+            }
+            builder.append('"');
+        }
+
+        private static void append(StringBuilder builder, String name, long value) {
+            if (value >= 0)
+                builder.append(",\"").append(name).append("\":").append(value);
+        }
+
+        private static void appendNumber(StringBuilder builder, String name, String value) {
+            if (value != null)
+                builder.append(",\"").append(name).append("\":").append(value);
+        }
+
+        @Override
+        public String getHeader() {
+            return null;
+        }
+
+        @Override
+        public String format(Record record) {
+            StringBuilder builder = new StringBuilder(160).append("{\"type\":\"").append(record.type).append("\",\"server\":");
+            quote(builder, record.server);
+            builder.append(",\"item\":");
+            quote(builder, record.item);
+            builder.append(",\"name\":");
+            quote(builder, record.name);
+            append(builder, "start", record.start);
+            append(builder, "end", record.end);
+            append(builder, "transactions", record.transactions);
+            append(builder, "total_time", record.totalTime);
+            append(builder, "average", record.average);
+            if (record.throughput >= 0)
+                builder.append(",\"throughput\":").append(String.format(Locale.ROOT, "%.3f", record.throughput));
+            append(builder, "p50", record.percentile50);
+            append(builder, "p95", record.percentile95);
+            append(builder, "p99", record.percentile99);
+            appendNumber(builder, "minimum", record.minimum);
+            appendNumber(builder, "maximum", record.maximum);
+            return builder.append("}\n").toString();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.oim.perf;
+
+import com.jhash.oimadmin.Config;
+import com.jhash.oimadmin.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class PerformanceSampler {
+
+    public static final String ATTR_SAMPLE_INTERVAL = PerfManager.ATTR_PERFORMANCE_CONFIG_PREFIX + "sample.interval";
+    public static final String ATTR_SAMPLE_WINDOW = PerfManager.ATTR_PERFORMANCE_CONFIG_PREFIX + "sample.window";
+    public static final long DEFAULT_SAMPLE_INTERVAL = 5000L;
+    public static final int DEFAULT_SAMPLE_WINDOW = 120;
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceSampler.class);
+    private final PerfManager perfManager;
+    private final String serverName;
+    private final List<PerfConfiguration> perfConfigurations;
+    private final long sampleInterval;
+    private final Map<PerfConfiguration, PerformanceTimeSeries> timeSeries = new LinkedHashMap<>();
+    private final List<SampleListener> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService sampleExecutor;
+
+    public PerformanceSampler(PerfManager perfManager, String serverName, List<PerfConfiguration> perfConfigurations, Config.Configuration configuration) {
+        this(perfManager, serverName, perfConfigurations,
+                configuration == null ? DEFAULT_SAMPLE_INTERVAL : Long.parseLong(configuration.getProperty(ATTR_SAMPLE_INTERVAL, "" + DEFAULT_SAMPLE_INTERVAL)),
+                configuration == null ? DEFAULT_SAMPLE_WINDOW : Integer.parseInt(configuration.getProperty(ATTR_SAMPLE_WINDOW, "" + DEFAULT_SAMPLE_WINDOW)));
+    }
+
+    public PerformanceSampler(PerfManager perfManager, String serverName, List<PerfConfiguration> perfConfigurations, long sampleInterval, int sampleWindow) {
+        if (perfManager == null || perfConfigurations == null)
+            throw new NullPointerException("Performance manager and configuration are needed for sampling performance data");
+        if (sampleInterval <= 0)
+            throw new IllegalArgumentException("Sampling interval must be a positive number, found " + sampleInterval);
+        this.perfManager = perfManager;
+        this.serverName = serverName;
+        this.perfConfigurations = new ArrayList<>(perfConfigurations);
+        this.sampleInterval = sampleInterval;
+        for (PerfConfiguration perfConfiguration : this.perfConfigurations) {
+            timeSeries.put(perfConfiguration, new PerformanceTimeSeries(perfConfiguration, sampleWindow));
+        }
+    }
+
+    public synchronized void start() {
+        if (sampleExecutor != null)
+            return;
+        logger.debug("Starting sampling of {} performance items on server {} every {} ms", new Object[]{perfConfigurations.size(), serverName, sampleInterval});
+        for (PerformanceTimeSeries performanceTimeSeries : timeSeries.values()) {
+            performanceTimeSeries.clear();
+        }
+        sampleExecutor = Utils.createScheduledExecutorService("Performance Sampler " + serverName);
+        sampleExecutor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                sample();
+            }
+        }, 0, sampleInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (sampleExecutor == null)
+            return;
+        logger.debug("Stopping sampling on server {}", serverName);
+        sampleExecutor.shutdownNow();
+        sampleExecutor = null;
+    }
+
+    // Unlike stop, lets the sample in progress (if any) complete and notify the listeners, waiting for it till the timeout.
+    public synchronized boolean stopAndWait(long timeout) {
+        if (sampleExecutor == null)
+            return true;
+        logger.debug("Stopping sampling on server {} after the sample in progress", serverName);
+        ScheduledExecutorService currentSampleExecutor = sampleExecutor;
+        sampleExecutor = null;
+        currentSampleExecutor.shutdown();
+        try {
+            if (currentSampleExecutor.awaitTermination(timeout, TimeUnit.MILLISECONDS))
+                return true;
+            logger.warn("Sample in progress on server {} did not complete in {} ms, stopping it", serverName, timeout);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        currentSampleExecutor.shutdownNow();
+        return false;
+    }
+
+    public synchronized boolean isRunning() {
+        return sampleExecutor != null;
+    }
+
+    public long getSampleInterval() {
+        return sampleInterval;
+    }
+
+    public PerformanceTimeSeries getTimeSeries(PerfConfiguration perfConfiguration) {
+        return timeSeries.get(perfConfiguration);
+    }
+
+    public Map<PerfConfiguration, PerformanceTimeSeries> getTimeSeries() {
+        return Collections.unmodifiableMap(timeSeries);
+    }
+
+    public void addListener(SampleListener listener) {
+        if (listener != null)
+            listeners.add(listener);
+    }
+
+    public void removeListener(SampleListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void sample() {
+        try {
+            Map<PerfConfiguration, PerformanceData.Snapshot> snapshots = perfManager.getSnapshotEngine().capture(serverName, perfConfigurations);
+            Map<PerfConfiguration, PerformanceTimeSeries.Interval> intervals = new LinkedHashMap<>();
+            for (Map.Entry<PerfConfiguration, PerformanceTimeSeries> performanceTimeSeries : timeSeries.entrySet()) {
+                PerformanceTimeSeries.Interval interval = performanceTimeSeries.getValue().add(snapshots.get(performanceTimeSeries.getKey()));
+                if (interval != null)
+                    intervals.put(performanceTimeSeries.getKey(), interval);
+            }
+            logger.trace("Sampled {} intervals on server {}", intervals.size(), serverName);
+            for (SampleListener listener : listeners) {
+                try {
+                    listener.sampled(snapshots, intervals);
+                } catch (Exception exception) {
+                    logger.warn("Failed to notify listener " + listener + " of sample on server " + serverName, exception);
+                }
+            }
+        } catch (Exception exception) {
+            // Failure to capture one sample should not stop the sampling.
+            logger.warn("Failed to sample performance data on server " + serverName, exception);
+        }
+    }
+
+    public interface SampleListener {
+
+        void sampled(Map<PerfConfiguration, PerformanceData.Snapshot> snapshots, Map<PerfConfiguration, PerformanceTimeSeries.Interval> intervals);
+    }
+}
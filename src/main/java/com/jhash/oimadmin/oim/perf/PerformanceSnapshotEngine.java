@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.oim.perf;
+
+import com.jhash.oimadmin.Config;
+import com.jhash.oimadmin.OIMAdminException;
+import com.jhash.oimadmin.Utils;
+import com.jhash.oimadmin.oim.JMXConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public class PerformanceSnapshotEngine {
+
+    public static final String ATTR_CAPTURE_THREADS = PerfManager.ATTR_PERFORMANCE_CONFIG_PREFIX + "capture.threads";
+    public static final String ATTR_CAPTURE_TIMEOUT = PerfManager.ATTR_PERFORMANCE_CONFIG_PREFIX + "capture.timeout";
+    public static final int DEFAULT_CAPTURE_THREADS = 8;
+    public static final long DEFAULT_CAPTURE_TIMEOUT = 60000L;
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceSnapshotEngine.class);
+    private final PerfManager perfManager;
+    private final ExecutorService captureExecutor;
+    private final long captureTimeout;
+
+    PerformanceSnapshotEngine(PerfManager perfManager, Config.Configuration configuration) {
+        this(perfManager, configuration == null ? DEFAULT_CAPTURE_THREADS : Integer.parseInt(configuration.getProperty(ATTR_CAPTURE_THREADS, "" + DEFAULT_CAPTURE_THREADS)),
+                configuration == null ? DEFAULT_CAPTURE_TIMEOUT : Long.parseLong(configuration.getProperty(ATTR_CAPTURE_TIMEOUT, "" + DEFAULT_CAPTURE_TIMEOUT)));
+    }
+
+    public PerformanceSnapshotEngine(PerfManager perfManager, int captureThreads, long captureTimeout) {
+        if (perfManager == null)
+            throw new NullPointerException("No performance manager provided for snapshot engine");
+        this.perfManager = perfManager;
+        this.captureExecutor = Utils.createExecutorService("Performance Capture", captureThreads > 0 ? captureThreads : DEFAULT_CAPTURE_THREADS);
+        this.captureTimeout = captureTimeout > 0 ? captureTimeout : DEFAULT_CAPTURE_TIMEOUT;
+    }
+
+    public Map<PerfConfiguration, PerformanceData.Snapshot> capture(String serverName, List<PerfConfiguration> perfConfigurations) {
+        Map<PerfConfiguration, PerformanceData.Snapshot> snapshot = capture(new String[]{serverName}, perfConfigurations).get(serverName);
+        return snapshot == null ? new HashMap<PerfConfiguration, PerformanceData.Snapshot>() : snapshot;
+    }
+
+    public Map<String, Map<PerfConfiguration, PerformanceData.Snapshot>> captureCluster(List<PerfConfiguration> perfConfigurations) {
+        return capture(perfManager.getServers(), perfConfigurations);
+    }
+
+    public Map<String, Map<PerfConfiguration, PerformanceData.Snapshot>> capture(String[] serverNames, List<PerfConfiguration> perfConfigurations) {
+        Map<String, Map<PerfConfiguration, PerformanceData.Snapshot>> clusterSnapshot = new LinkedHashMap<>();
+        if (serverNames == null || serverNames.length == 0 || perfConfigurations == null || perfConfigurations.isEmpty())
+            return clusterSnapshot;
+        Map<JMXConnection.OIM_JMX_BEANS, Set<PerfConfiguration>> perfConfigurationsByBean = PerfManager.groupByBean(perfConfigurations);
+        // All the (server, bean) captures wait on this signal so that they are released together.
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        Map<String, List<Future<Map<PerfConfiguration, PerformanceData.Snapshot>>>> captureTasks = new LinkedHashMap<>();
+        try {
+            for (final String serverName : serverNames) {
+                List<Future<Map<PerfConfiguration, PerformanceData.Snapshot>>> serverCaptureTasks = new ArrayList<>();
+                for (final Map.Entry<JMXConnection.OIM_JMX_BEANS, Set<PerfConfiguration>> perfConfigurationsForBean : perfConfigurationsByBean.entrySet()) {
+                    serverCaptureTasks.add(captureExecutor.submit(new Callable<Map<PerfConfiguration, PerformanceData.Snapshot>>() {
+                        @Override
+                        public Map<PerfConfiguration, PerformanceData.Snapshot> call() throws Exception {
+                            startSignal.await();
+                            return perfManager.capturePerformanceData(serverName, perfConfigurationsForBean.getKey(), perfConfigurationsForBean.getValue());
+                        }
+                    }));
+                }
+                captureTasks.put(serverName, serverCaptureTasks);
+            }
+        } finally {
+            logger.debug("Releasing {} capture tasks for servers {}", perfConfigurationsByBean.size() * serverNames.length, serverNames);
+            startSignal.countDown();
+        }
+        long captureDeadline = System.currentTimeMillis() + captureTimeout;
+        OIMAdminException captureFailure = null;
+        for (Map.Entry<String, List<Future<Map<PerfConfiguration, PerformanceData.Snapshot>>>> serverCaptureTasks : captureTasks.entrySet()) {
+            Map<PerfConfiguration, PerformanceData.Snapshot> serverSnapshot = new HashMap<>();
+            for (Future<Map<PerfConfiguration, PerformanceData.Snapshot>> captureTask : serverCaptureTasks.getValue()) {
+                try {
+                    serverSnapshot.putAll(captureTask.get(Math.max(captureDeadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS));
+                } catch (Exception exception) {
+                    captureTask.cancel(true);
+                    logger.warn("Failed to capture performance data on server " + serverCaptureTasks.getKey(), exception);
+                    if (captureFailure == null)
+                        captureFailure = new OIMAdminException("Failed to capture performance data on server " + serverCaptureTasks.getKey(),
+                                exception instanceof ExecutionException && exception.getCause() instanceof Exception ? (Exception) exception.getCause() : exception);
+                }
+            }
+            clusterSnapshot.put(serverCaptureTasks.getKey(), serverSnapshot);
+        }
+        if (captureFailure != null)
+            throw captureFailure;
+        return clusterSnapshot;
+    }
+
+    public void destroy() {
+        captureExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.oim.perf;
+
+import com.jhash.oimadmin.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PerformanceTimeSeries {
+
+    public final PerfConfiguration perfConfiguration;
+    public final int capacity;
+    private final long[] intervalStart;
+    private final long[] intervalEnd;
+    private final long[] completedTransactions;
+    private final long[] transactionTime;
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+    private int nextIndex = 0;
+    private int size = 0;
+    private PerformanceData.Snapshot lastSnapshot;
+
+    public PerformanceTimeSeries(PerfConfiguration perfConfiguration, int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Time series capacity must be a positive number, found " + capacity);
+        this.perfConfiguration = perfConfiguration;
+        this.capacity = capacity;
+        this.intervalStart = new long[capacity];
+        this.intervalEnd = new long[capacity];
+        this.completedTransactions = new long[capacity];
+        this.transactionTime = new long[capacity];
+    }
+
+    public synchronized Interval add(PerformanceData.Snapshot snapshot) {
+        if (snapshot == null || !snapshot.contains(PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS))
+            return null;
+        PerformanceData.Snapshot previousSnapshot = lastSnapshot;
+        lastSnapshot = snapshot;
+        if (previousSnapshot == null)
+            return null;
+        long completed = snapshot.getAsLong(PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS);
+        long time = snapshot.getAsLong(PerfConfiguration.DATA_POINT.TOTAL_TRANSACTION_TIME);
+        long completedDelta = completed - previousSnapshot.getAsLong(PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS);
+        long timeDelta = time - previousSnapshot.getAsLong(PerfConfiguration.DATA_POINT.TOTAL_TRANSACTION_TIME);
+        if (completedDelta < 0 || timeDelta < 0) {
+            // counters were reset (e.g. server restart) and everything seen so far happened after the reset.
+            completedDelta = completed;
+            timeDelta = time;
+        }
+        if (completedDelta > 0) {
+            // Only the total time is known for the interval, so all its transactions are accounted at interval's average.
+            latencyHistogram.record(timeDelta / completedDelta, completedDelta);
+        }
+        intervalStart[nextIndex] = previousSnapshot.captureTime;
+        intervalEnd[nextIndex] = snapshot.captureTime;
+        completedTransactions[nextIndex] = completedDelta;
+        transactionTime[nextIndex] = timeDelta;
+        nextIndex = (nextIndex + 1) % capacity;
+        if (size < capacity)
+            size++;
+        return new Interval(previousSnapshot.captureTime, snapshot.captureTime, completedDelta, timeDelta);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized List<Interval> getIntervals() {
+        List<Interval> intervals = new ArrayList<>(size);
+        for (int counter = 0; counter < size; counter++) {
+            int index = (nextIndex - size + counter + capacity) % capacity;
+            intervals.add(new Interval(intervalStart[index], intervalEnd[index], completedTransactions[index], transactionTime[index]));
+        }
+        return intervals;
+    }
+
+    public synchronized Interval getWindow() {
+        if (size == 0)
+            return null;
+        long completed = 0, time = 0;
+        for (int counter = 0; counter < size; counter++) {
+            completed += completedTransactions[counter];
+            time += transactionTime[counter];
+        }
+        int firstIndex = (nextIndex - size + capacity) % capacity;
+        int lastIndex = (nextIndex - 1 + capacity) % capacity;
+        return new Interval(intervalStart[firstIndex], intervalEnd[lastIndex], completed, time);
+    }
+
+    public LatencyHistogram getLatencyHistogram() {
+        return latencyHistogram.copy();
+    }
+
+    public synchronized void clear() {
+        latencyHistogram.clear();
+        nextIndex = 0;
+        size = 0;
+        lastSnapshot = null;
+    }
+
+    @Override
+    public String toString() {
+        Interval window = getWindow();
+        if (window == null)
+            return "Sampling...";
+        if (window.completedTransactions > 0)
+            return "" + window.getAverageTime();
+        return "No Change";
+    }
+
+    public static class Interval {
+        public final long start;
+        public final long end;
+        public final long completedTransactions;
+        public final long transactionTime;
+
+        public Interval(long start, long end, long completedTransactions, long transactionTime) {
+            this.start = start;
+            this.end = end;
+            this.completedTransactions = completedTransactions;
+            this.transactionTime = transactionTime;
+        }
+
+        public long getDuration() {
+            return end - start;
+        }
+
+        public double getThroughput() {
+            long duration = getDuration();
+            return duration > 0 ? (completedTransactions * 1000.0) / duration : 0;
+        }
+
+        public long getAverageTime() {
+            return completedTransactions > 0 ? transactionTime / completedTransactions : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Interval [" + start + "-" + end + ", completed=" + completedTransactions + ", time=" + transactionTime + "]";
+        }
+    }
+}
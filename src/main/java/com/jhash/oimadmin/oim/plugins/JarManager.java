@@ -19,14 +19,20 @@ package com.jhash.oimadmin.oim.plugins;
 import com.jhash.oimadmin.OIMAdminException;
 import com.jhash.oimadmin.Utils;
 import com.jhash.oimadmin.oim.DBConnection;
-import com.jhash.oimadmin.oim.Details;
+import com.jhash.oimadmin.oim.DBCursor;
 import com.jhash.oimadmin.oim.OIMConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Blob;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -39,6 +45,7 @@ public class JarManager {
     public static final String UPDATE_JAR = "update OIMHOME_JARS set oj_jar=?,updated_on=?,updated_by=? where oj_name=? and oj_type=?";
     public static final String DOWNLOAD_JAR = "select OJ_JAR from OIMHOME_JARS where oj_type=? and oj_name=?";
     private static final Logger logger = LoggerFactory.getLogger(JarManager.class);
+    private static final long TRANSFER_CHUNK_SIZE = 1024 * 1024;
     private final OIMConnection oimConnection;
     private final DBConnection dbConnection;
 
@@ -50,14 +57,12 @@ public class JarManager {
 
     public Map<String, List<String>> getRegisteredJars() {
         logger.trace("Retrieving registered jars...");
-        Map<String, List<String>> registeredJars = null;
+        final Map<String, List<String>> registeredJars = new HashMap<>();
         if (dbConnection != null) {
             logger.trace("Invoking SQL Query {}", GET_ALL_JARS);
-            Details result = dbConnection.invokeSQL(GET_ALL_JARS);
-            logger.trace("Retrieved SQL result as {}", result);
-            registeredJars = new HashMap<>();
-            if (result != null) {
-                for (Map<String, Object> record : result) {
+            long recordCount = dbConnection.streamSQL(GET_ALL_JARS, new DBConnection.ProcessRecord() {
+                @Override
+                public void execute(Map<String, Object> record) {
                     String type = (String) record.get("OJ_TYPE");
                     String name = (String) record.get("OJ_NAME");
                     if (!Utils.isEmpty(type) && !Utils.isEmpty(name)) {
@@ -69,24 +74,29 @@ public class JarManager {
                         logger.warn("Invalid entry {}, {} was read while reading result for {}. Ignoring the entry.", new Object[]{type, name, GET_ALL_JARS});
                     }
                 }
-            } else {
-                logger.debug("No result returned. Nothing to do.");
-            }
+            });
+            logger.trace("Processed {} records of SQL result", recordCount);
         } else {
             logger.debug("No db connection available to retrieve Jar details.");
+            return null;
         }
         logger.trace("Retrieved registered jar as {}", registeredJars);
         return registeredJars;
     }
 
     public void registerJar(String type, File file) {
+        registerJar(type, file, null);
+    }
+
+    public void registerJar(String type, File file, TransferProgress progress) {
         logger.debug("Registering jar {} of type {}", file, type);
         try {
             if (isValid(type, file)) {
-                byte[] jarBytes = readFile(file);
-                dbConnection.invokeOperation(CREATE_JAR, file.getName(), type, jarBytes,
-                        new java.sql.Date(Long.valueOf(new java.util.Date().getTime()).longValue()),
-                        (int) oimConnection.getLoginUserIdentifier());
+                try (FileChannel jarChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    dbConnection.invokeOperation(CREATE_JAR, file.getName(), type, createBinaryStream(jarChannel, progress),
+                            new java.sql.Date(Long.valueOf(new java.util.Date().getTime()).longValue()),
+                            (int) oimConnection.getLoginUserIdentifier());
+                }
             }
         } catch (Exception exception) {
             throw new OIMAdminException("Failed to register jar " + file + " of type " + type, exception);
@@ -105,40 +115,56 @@ public class JarManager {
         return true;
     }
 
-    private byte[] readFile(File file) {
-        FileInputStream fileInputStream = null;
-        byte[] jarBytes = null;
-        try {
-            fileInputStream = new FileInputStream(file);
-            int byteCount = fileInputStream.available();
-            jarBytes = new byte[byteCount];
-            fileInputStream.read(jarBytes);
-        } catch (Exception exception) {
-            throw new OIMAdminException("Jar " + file + " could not be read.", exception);
-        } finally {
-            if (fileInputStream != null) {
-                try {
-                    fileInputStream.close();
-                } catch (Exception exception) {
-                    logger.warn("Failed to close file input stream while reading jar " + file, exception);
+    // The jar is streamed from the file to database so that it is not loaded in memory.
+    private DBConnection.BinaryStream createBinaryStream(FileChannel jarChannel, final TransferProgress progress) throws IOException {
+        final long totalBytes = jarChannel.size();
+        InputStream jarStream = Channels.newInputStream(jarChannel);
+        if (progress != null) {
+            jarStream = new FilterInputStream(jarStream) {
+                private long transferredBytes = 0;
+
+                @Override
+                public int read() throws IOException {
+                    int value = super.read();
+                    if (value >= 0)
+                        transferred(1);
+                    return value;
                 }
-            }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int readBytes = super.read(buffer, offset, length);
+                    if (readBytes > 0)
+                        transferred(readBytes);
+                    return readBytes;
+                }
+
+                private void transferred(int bytes) {
+                    transferredBytes += bytes;
+                    progress.transferred(transferredBytes, totalBytes);
+                }
+            };
         }
-        return jarBytes;
+        return new DBConnection.BinaryStream(jarStream, totalBytes);
     }
 
     public void updateJar(String type, String jarName, File file) {
+        updateJar(type, jarName, file, null);
+    }
+
+    public void updateJar(String type, String jarName, File file, TransferProgress progress) {
         logger.debug("Updating jar {} of type {} and file {}", new Object[]{jarName, type, file});
         if (Utils.isEmpty(jarName)) {
             jarName = file.getName();
         }
         try {
             if (isValid(type, file)) {
-                byte[] jarBytes = readFile(file);
-                dbConnection.invokeOperation(UPDATE_JAR, jarBytes,
-                        new java.sql.Date(Long.valueOf(new java.util.Date().getTime()).longValue()),
-                        (int) oimConnection.getLoginUserIdentifier(), jarName, type
-                );
+                try (FileChannel jarChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    dbConnection.invokeOperation(UPDATE_JAR, createBinaryStream(jarChannel, progress),
+                            new java.sql.Date(Long.valueOf(new java.util.Date().getTime()).longValue()),
+                            (int) oimConnection.getLoginUserIdentifier(), jarName, type
+                    );
+                }
             }
         } catch (Exception exception) {
             throw new OIMAdminException("Failed to update jar " + file + " of type " + type, exception);
@@ -146,33 +172,52 @@ public class JarManager {
     }
 
     public void saveJar(String type, String jarName, File file) {
+        saveJar(type, jarName, file, null);
+    }
+
+    public void saveJar(String type, String jarName, File file, TransferProgress progress) {
         logger.debug("Saving jar {} of type {} to file {}", new Object[]{jarName, type, file});
         if (Utils.isEmpty(type) || Utils.isEmpty(jarName) || file == null)
             return;
-        FileOutputStream outputStream = null;
+        Path tempFile = null;
         try {
             if ((!file.exists() && file.createNewFile()) || (file.exists() && file.isFile() && file.canWrite())) {
-                Details details = dbConnection.invokeSQL(DOWNLOAD_JAR, type, jarName);
-                byte[] content;
-                logger.debug("Details value {}", details.getItemAt(0));
-                if (details != null && details.size() == 1
-                        && (content = (byte[]) details.getItemAt(0, "OJ_JAR", null)) != null) {
-                    outputStream = new FileOutputStream(file);
-                    outputStream.write(content);
-                } else {
-                    throw new OIMAdminException("Failed to locate jar associated with jar " + jarName + " of type " + type);
+                try (DBCursor cursor = dbConnection.openCursor(DOWNLOAD_JAR, type, jarName)) {
+                    Object content;
+                    if (!cursor.hasNext() || (content = cursor.next().get("OJ_JAR")) == null)
+                        throw new OIMAdminException("Failed to locate jar associated with jar " + jarName + " of type " + type);
+                    // Jar is written to a file in the same directory and only replaces the file once it has been completely saved.
+                    tempFile = Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), file.getName(), ".tmp");
+                    try (FileChannel fileChannel = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                         ReadableByteChannel jarChannel = Channels.newChannel(content instanceof Blob ? ((Blob) content).getBinaryStream()
+                                 : new ByteArrayInputStream((byte[]) content))) {
+                        long totalBytes = content instanceof Blob ? ((Blob) content).length() : ((byte[]) content).length;
+                        long transferredBytes = 0;
+                        long readBytes;
+                        while ((readBytes = fileChannel.transferFrom(jarChannel, transferredBytes, TRANSFER_CHUNK_SIZE)) > 0) {
+                            transferredBytes += readBytes;
+                            if (progress != null)
+                                progress.transferred(transferredBytes, totalBytes);
+                        }
+                        logger.debug("Saved {} bytes of jar {} to {}", new Object[]{transferredBytes, jarName, tempFile});
+                    }
+                    // Checked after the transfer since moving the cursor releases the BLOB being read.
+                    if (cursor.hasNext())
+                        throw new OIMAdminException("Located multiple jars associated with jar " + jarName + " of type " + type);
                 }
+                Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                tempFile = null;
             } else {
                 throw new OIMAdminException("File " + file + " is not valid or it could not be created/updated.");
             }
         } catch (Exception exception) {
             throw new OIMAdminException("Failed to save jar " + jarName + " of type " + type + " to " + file, exception);
         } finally {
-            if (outputStream != null) {
+            if (tempFile != null) {
                 try {
-                    outputStream.close();
+                    Files.deleteIfExists(tempFile);
                 } catch (Exception exception) {
-                    logger.warn("Failed to close the file created to save downloaded jar " + jarName + " of type " + type + ". Ignoring the error.", exception);
+                    logger.warn("Failed to delete the file " + tempFile + " created to save downloaded jar " + jarName + " of type " + type + ". Ignoring the error.", exception);
                 }
             }
         }
@@ -190,4 +235,9 @@ public class JarManager {
         oimConnection.unregisterPlugin(className);
     }
 
+    public interface TransferProgress {
+
+        void transferred(long transferredBytes, long totalBytes);
+    }
+
 }
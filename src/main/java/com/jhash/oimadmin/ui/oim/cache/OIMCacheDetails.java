@@ -24,6 +24,7 @@ import com.jhash.oimadmin.oim.cache.CacheManager;
 import com.jhash.oimadmin.oim.cache.CacheManager.OIM_CACHE_ATTRS;
 import com.jhash.oimadmin.ui.AbstractUIComponent;
 import com.jhash.oimadmin.ui.component.ParentComponent;
+import com.jhash.oimadmin.ui.utils.UIUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,7 +33,6 @@ import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
-import javax.swing.table.DefaultTableModel;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.ItemEvent;
@@ -186,12 +186,7 @@ public class OIMCacheDetails extends AbstractUIComponent<JComponent, OIMCacheDet
             }
         });
         final Details cacheCategory = cacheManager.getCacheCategories();
-        DefaultTableModel tableModel = new DefaultTableModel(cacheCategory.getData(), cacheCategory.getColumns()) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        UIUtils.DetailsTableModel tableModel = new UIUtils.DetailsTableModel(cacheCategory);
         cacheCategoryEnabled.addItemListener(new ItemListener() {
             @Override
             public void itemStateChanged(ItemEvent e) {
@@ -299,14 +294,15 @@ public class OIMCacheDetails extends AbstractUIComponent<JComponent, OIMCacheDet
     }
 
     private void resetDefaultUI() {
-        clustered.setSelected(cacheManager.<Boolean>getCacheDetails(OIM_CACHE_ATTRS.CLUSTERED));
-        enabled.setSelected(cacheManager.<Boolean>getCacheDetails(OIM_CACHE_ATTRS.ENABLED));
-        expirationTime.setText(cacheManager.<Integer>getCacheDetails(OIM_CACHE_ATTRS.ExpirationTime).toString());
-        threadLocalEnabled.setSelected(cacheManager.<Boolean>getCacheDetails(OIM_CACHE_ATTRS.ThreadLocalCacheEnabled));
-        cacheProviderClass.setText(cacheManager.<String>getCacheDetails(OIM_CACHE_ATTRS.Provider));
-        multiCastAddress.setText(cacheManager.<String>getCacheDetails(OIM_CACHE_ATTRS.MulticastAddress));
-        multiCastConfig.setText(cacheManager.<String>getCacheDetails(OIM_CACHE_ATTRS.MulticastConfig));
-        cacheSize.setText(cacheManager.<Integer>getCacheDetails(OIM_CACHE_ATTRS.Size).toString());
+        Map<OIM_CACHE_ATTRS, Object> cacheDetails = cacheManager.getCacheDetails(OIM_CACHE_ATTRS.values());
+        clustered.setSelected((Boolean) cacheDetails.get(OIM_CACHE_ATTRS.CLUSTERED));
+        enabled.setSelected((Boolean) cacheDetails.get(OIM_CACHE_ATTRS.ENABLED));
+        expirationTime.setText(cacheDetails.get(OIM_CACHE_ATTRS.ExpirationTime).toString());
+        threadLocalEnabled.setSelected((Boolean) cacheDetails.get(OIM_CACHE_ATTRS.ThreadLocalCacheEnabled));
+        cacheProviderClass.setText((String) cacheDetails.get(OIM_CACHE_ATTRS.Provider));
+        multiCastAddress.setText((String) cacheDetails.get(OIM_CACHE_ATTRS.MulticastAddress));
+        multiCastConfig.setText((String) cacheDetails.get(OIM_CACHE_ATTRS.MulticastConfig));
+        cacheSize.setText(cacheDetails.get(OIM_CACHE_ATTRS.Size).toString());
     }
 
     private JComponent buildPanel() {
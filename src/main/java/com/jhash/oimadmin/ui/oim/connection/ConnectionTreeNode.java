@@ -37,8 +37,10 @@ import com.jhash.oimadmin.ui.componentTree.DummyAdminTreeNode;
 import com.jhash.oimadmin.ui.componentTree.VirtualNode;
 import com.jhash.oimadmin.ui.menu.MenuHandler;
 import com.jhash.oimadmin.ui.oim.cache.OIMCacheNode;
+import com.jhash.oimadmin.ui.oim.diagnostics.ToolDiagnosticsDetails;
 import com.jhash.oimadmin.ui.oim.eventHandlers.EventHandlersTreeNode;
 import com.jhash.oimadmin.ui.oim.mds.MDSTreeNode;
+import com.jhash.oimadmin.ui.oim.orch.OrchestrationFailuresDetails;
 import com.jhash.oimadmin.ui.oim.orch.TraceOrchestrationDetails;
 import com.jhash.oimadmin.ui.oim.perf.OIMPerformanceTreeNode;
 import com.jhash.oimadmin.ui.oim.plugins.JarTreeNodes;
@@ -54,6 +56,8 @@ public class ConnectionTreeNode extends AbstractUIComponentTreeNode<ConnectionTr
     public static final MenuHandler.MENU NEW_CONNECTION = new MenuHandler.MENU("Connection", MenuHandler.MENU.NEW);
     private static final Logger logger = LoggerFactory.getLogger(ConnectionTreeNode.class);
     private Connections connections;
+    private PerfManager perfManager;
+    private OrchManager orchManager;
     private ConnectionDetails connectionDetailsUI;
 
     public ConnectionTreeNode(String name, ParentComponent parent) {
@@ -124,12 +128,11 @@ public class ConnectionTreeNode extends AbstractUIComponentTreeNode<ConnectionTr
         if (cacheItemsAdded)
             cacheNode.initialize();
         if (eventManager != null && connections.contains(CONNECTION_TYPES.JMX)) {
-            PerfManager perfManager = new PerfManager(eventManager, connections.getConnection(CONNECTION_TYPES.JMX));
+            perfManager = new PerfManager(eventManager, connections.getConnection(CONNECTION_TYPES.JMX));
             new OIMPerformanceTreeNode(perfManager, "Performance", this).publish();
         }
         DummyAdminTreeNode trackerNode = new DummyAdminTreeNode("Track", this);
         boolean trackerItemAdded = false;
-        OrchManager orchManager = null;
         if (connections.contains(CONNECTION_TYPES.OIM, CONNECTION_TYPES.JMX, CONNECTION_TYPES.DB)) {
             orchManager = new OrchManager(connections.getConnection(CONNECTION_TYPES.OIM), connections.getConnection(CONNECTION_TYPES.JMX), connections.getConnection(CONNECTION_TYPES.DB));
         }
@@ -144,6 +147,9 @@ public class ConnectionTreeNode extends AbstractUIComponentTreeNode<ConnectionTr
             new DisplayComponentNode<>("Orchestration",
                     new TraceOrchestrationDetails(orchManager, "Orchestration", this),
                     trackerNode).initialize();
+            new DisplayComponentNode<>("Orchestration Failures",
+                    new OrchestrationFailuresDetails(orchManager, "Orchestration Failures", this),
+                    trackerNode).initialize();
             trackerItemAdded = true;
         }
         if (trackerItemAdded)
@@ -157,6 +163,9 @@ public class ConnectionTreeNode extends AbstractUIComponentTreeNode<ConnectionTr
         }
         if (codeItemAdded)
             codeNode.initialize();
+        if (connections.contains(CONNECTION_TYPES.JMX)) {
+            new DisplayComponentNode<>("Tool Diagnostics", new ToolDiagnosticsDetails("Tool Diagnostics", this), this).initialize();
+        }
         logger.debug("Initialized {}", this);
     }
 
@@ -211,6 +220,22 @@ public class ConnectionTreeNode extends AbstractUIComponentTreeNode<ConnectionTr
     @Override
     public void destroyNode() {
         logger.debug("Destroying {} ...", this);
+        if (perfManager != null) {
+            try {
+                perfManager.destroy();
+            } catch (Exception exception) {
+                logger.warn("Failed to destroy performance manager " + perfManager + ". Ignoring error.", exception);
+            }
+            perfManager = null;
+        }
+        if (orchManager != null) {
+            try {
+                orchManager.destroy();
+            } catch (Exception exception) {
+                logger.warn("Failed to destroy orchestration manager " + orchManager + ". Ignoring error.", exception);
+            }
+            orchManager = null;
+        }
         if (connections != null) {
             for (CONNECTION_TYPES connectionType : connections.connections.keySet()) {
                 try {
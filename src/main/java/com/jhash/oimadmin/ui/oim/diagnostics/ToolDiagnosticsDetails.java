@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.ui.oim.diagnostics;
+
+import com.jgoodies.jsdl.common.builder.FormBuilder;
+import com.jgoodies.jsdl.component.JGComponentFactory;
+import com.jgoodies.jsdl.component.JGStripedTable;
+import com.jhash.oimadmin.oim.JMXMetrics;
+import com.jhash.oimadmin.ui.AbstractUIComponent;
+import com.jhash.oimadmin.ui.component.ParentComponent;
+import com.jhash.oimadmin.ui.utils.UIUtils;
+import com.jidesoft.swing.JideScrollPane;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+public class ToolDiagnosticsDetails extends AbstractUIComponent<JPanel, ToolDiagnosticsDetails> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ToolDiagnosticsDetails.class);
+    private final UIUtils.DetailsTableModel tableModel = new UIUtils.DetailsTableModel(null);
+    private JButton refresh = JGComponentFactory.getCurrent().createButton("Refresh");
+    private JButton reset = JGComponentFactory.getCurrent().createButton("Reset");
+    private JPanel diagnosticsUI;
+
+    public ToolDiagnosticsDetails(String name, ParentComponent parentComponent) {
+        super(name, parentComponent);
+    }
+
+    @Override
+    public void setupDisplayComponent() {
+        logger.debug("Setting up {}", this);
+        refresh.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                refreshMetrics();
+            }
+        });
+        reset.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                JMXMetrics.reset();
+                refreshMetrics();
+            }
+        });
+        JGStripedTable metricsTable = JGComponentFactory.getCurrent().createReadOnlyTable(tableModel);
+        metricsTable.setAutoCreateRowSorter(true);
+        JPanel actions = FormBuilder.create().columns("3dlu, pref, 3dlu, pref, 3dlu:grow")
+                .rows("2dlu, p, 2dlu")
+                .add(refresh).xy(2, 2).add(reset).xy(4, 2)
+                .build();
+        diagnosticsUI = new JPanel(new BorderLayout());
+        diagnosticsUI.add(actions, BorderLayout.NORTH);
+        diagnosticsUI.add(new JideScrollPane(metricsTable), BorderLayout.CENTER);
+        refreshMetrics();
+        logger.debug("Set up {}", this);
+    }
+
+    private void refreshMetrics() {
+        try {
+            tableModel.setDetails(JMXMetrics.getDetails());
+        } catch (Exception exception) {
+            displayMessage("Failed to load diagnostics", "Could not load JMX call metrics", exception);
+        }
+    }
+
+    @Override
+    public JPanel getDisplayComponent() {
+        return diagnosticsUI;
+    }
+
+    @Override
+    public void destroyDisplayComponent() {
+        logger.debug("Destroyed {}", this);
+    }
+
+}
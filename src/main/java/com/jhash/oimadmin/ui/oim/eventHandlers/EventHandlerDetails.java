@@ -36,7 +36,6 @@ import org.slf4j.LoggerFactory;
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.Map;
 
@@ -71,12 +70,7 @@ public class EventHandlerDetails extends AbstractUIComponent<JPanel, EventHandle
     @Override
     public void setupDisplayComponent() {
         final Details details = connection.getEventHandlers(eventHandlerDetails);
-        DefaultTableModel tableModel = new DefaultTableModel(details.getData(), details.getColumns()) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        UIUtils.DetailsTableModel tableModel = new UIUtils.DetailsTableModel(details);
         table = JGComponentFactory.getCurrent().createReadOnlyTable(tableModel);
         table.getSelectionModel().setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         table.getSelectionModel().addListSelectionListener(new ListSelectionListener() {
@@ -377,7 +377,17 @@ public class OrchestrationDetailUI extends AbstractUIComponent<JPanel, Orchestra
             try {
                 PublicProcessImpl orchestrationObject = (PublicProcessImpl) values.get(OrchManager.ORCHESTRATION);
                 if (orchestrationObject != null) {
-                    updateProcessDetails(orchestrationObject);
+                    try {
+                        orchestrationObject.load();
+                    } catch (Exception exception) {
+                        logger.warn("Failed to extract orchestration details from blob for process ID " + orchestrationProcessID, exception);
+                        displayMessage("Orchestration extraction failed.", "Orchestration details could not be retrieved. Error " + exception, null);
+                        resetProcessDetails();
+                        resetOrchestrationDetails();
+                        resetEventDetails();
+                        return;
+                    }
+                    updateProcessDetails(orchestrationProcessID, orchestrationObject);
                     Object orchestrationData = orchestrationObject.getTarget();
                     if (orchestrationData instanceof Orchestration) {
                         updateOrchestrationDetails(orchestrationProcessID, (Orchestration) orchestrationData);
@@ -479,7 +489,7 @@ public class OrchestrationDetailUI extends AbstractUIComponent<JPanel, Orchestra
         processObjResult.setText("");
     }
 
-    private void updateProcessDetails(PublicProcessImpl process) {
+    private void updateProcessDetails(long orchestrationProcessID, PublicProcessImpl process) {
         try {
             processObjBulkParentID.setText(process.getBulkParentId() != null ? process.getBulkParentId().toString() : "N/A");
             processObjParentProcessID.setText(process.getParentId() != null ? process.getParentId().toString() : "N/A");
@@ -513,7 +523,7 @@ public class OrchestrationDetailUI extends AbstractUIComponent<JPanel, Orchestra
             }
             processObjResult.setText("" + process.getResult());
         } catch (Exception exception) {
-            displayMessage("Process display failed", "Failed to display process details for process ID " + process.getProcessId(), exception);
+            displayMessage("Process display failed", "Failed to display process details for process ID " + orchestrationProcessID, exception);
             resetProcessDetails();
         }
     }
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.ui.oim.orch;
+
+import com.jgoodies.jsdl.common.builder.FormBuilder;
+import com.jgoodies.jsdl.component.JGComponentFactory;
+import com.jgoodies.jsdl.component.JGStripedTable;
+import com.jhash.oimadmin.Utils;
+import com.jhash.oimadmin.oim.Details;
+import com.jhash.oimadmin.oim.orch.OrchFailureScanner;
+import com.jhash.oimadmin.oim.orch.OrchManager;
+import com.jhash.oimadmin.oim.orch.OrchRemediationJob;
+import com.jhash.oimadmin.ui.AbstractUIComponent;
+import com.jhash.oimadmin.ui.component.ParentComponent;
+import com.jhash.oimadmin.ui.utils.UIUtils;
+import com.jidesoft.swing.JideScrollPane;
+import com.jidesoft.swing.JideSplitPane;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OrchestrationFailuresDetails extends AbstractUIComponent<JPanel, OrchestrationFailuresDetails> {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrchestrationFailuresDetails.class);
+    private final OrchManager orchestrationManager;
+    private final UIUtils.DetailsTableModel summaryTableModel = new UIUtils.DetailsTableModel(null);
+    private final UIUtils.DetailsTableModel failuresTableModel = new UIUtils.DetailsTableModel(null);
+    private JButton monitor = JGComponentFactory.getCurrent().createButton("Stop Monitoring");
+    private JButton clear = JGComponentFactory.getCurrent().createButton("Clear");
+    private JButton remediate = JGComponentFactory.getCurrent().createButton("Remediate");
+    private JLabel status = JGComponentFactory.getCurrent().createLabel("");
+    private JLabel remediationStatus = JGComponentFactory.getCurrent().createLabel("");
+    private JComboBox<OrchRemediationJob.Action> remediationAction;
+    private JGStripedTable summaryTable;
+    private OrchFailureScanner scanner;
+    private volatile OrchRemediationJob remediationJob;
+    private JPanel failuresUI;
+
+    public OrchestrationFailuresDetails(OrchManager orchestrationManager, String name, ParentComponent parentComponent) {
+        super(name, parentComponent);
+        this.orchestrationManager = orchestrationManager;
+    }
+
+    @Override
+    public void setupDisplayComponent() {
+        logger.debug("Setting up {}", this);
+        scanner = new OrchFailureScanner(orchestrationManager, getConfiguration());
+        scanner.addListener(new OrchFailureScanner.ScanListener() {
+            @Override
+            public void scanned(OrchFailureScanner scanner, int updatedFailures, int resolvedFailures) {
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        refreshFailures();
+                    }
+                });
+            }
+        });
+        monitor.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (scanner.isRunning()) {
+                    scanner.stop();
+                    monitor.setText("Monitor");
+                } else {
+                    scanner.start();
+                    monitor.setText("Stop Monitoring");
+                }
+                refreshFailures();
+            }
+        });
+        clear.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                scanner.clear();
+                refreshFailures();
+            }
+        });
+        List<OrchRemediationJob.Action> actions = new ArrayList<>();
+        for (Object failedEventResponse : orchestrationManager.getAllowedResponsesForFailedEvent()) {
+            actions.add(OrchRemediationJob.handleFailedEvent(failedEventResponse));
+        }
+        actions.add(OrchRemediationJob.cancelPendingFailedEvent());
+        actions.add(OrchRemediationJob.cancel(false, false));
+        actions.add(OrchRemediationJob.cancel(true, false));
+        remediationAction = new JComboBox<>(actions.toArray(new OrchRemediationJob.Action[0]));
+        final JFileChooser journalChooser = new JFileChooser(getConfiguration().getWorkArea());
+        journalChooser.setDialogTitle("Remediation Journal...");
+        remediate.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                OrchRemediationJob currentRemediationJob = remediationJob;
+                if (currentRemediationJob != null) {
+                    currentRemediationJob.cancel();
+                    return;
+                }
+                OrchRemediationJob.Action action = (OrchRemediationJob.Action) remediationAction.getSelectedItem();
+                List<Long> processIDs = getRemediationProcessIDs(action);
+                String scope = getRemediationScope();
+                if (processIDs.isEmpty()) {
+                    JOptionPane.showMessageDialog(remediate, "No orchestration process" + (action.getProcessStatus() == null ? "" : " with status "
+                            + action.getProcessStatus()) + " found in " + scope + " to run " + action + " on.", "Remediate", JOptionPane.INFORMATION_MESSAGE);
+                    return;
+                }
+                if (journalChooser.showDialog(remediate, "Select...") != JFileChooser.APPROVE_OPTION)
+                    return;
+                if (JOptionPane.showConfirmDialog(remediate, "Run " + action + " on " + processIDs.size() + " orchestration processes"
+                                + (action.getProcessStatus() == null ? "" : " with status " + action.getProcessStatus()) + " in " + scope
+                                + " using journal " + journalChooser.getSelectedFile() + "?", "Confirm Remediation", JOptionPane.OK_CANCEL_OPTION,
+                        JOptionPane.WARNING_MESSAGE) != JOptionPane.OK_OPTION)
+                    return;
+                startRemediation(action, processIDs, journalChooser.getSelectedFile());
+            }
+        });
+        summaryTable = JGComponentFactory.getCurrent().createReadOnlyTable(summaryTableModel);
+        summaryTable.getSelectionModel().setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        summaryTable.getSelectionModel().addListSelectionListener(new ListSelectionListener() {
+            @Override
+            public void valueChanged(ListSelectionEvent e) {
+                if (e.getValueIsAdjusting())
+                    return;
+                refreshSelectedFailures();
+            }
+        });
+        JGStripedTable failuresTable = JGComponentFactory.getCurrent().createReadOnlyTable(failuresTableModel);
+        failuresTable.setAutoCreateRowSorter(true);
+        JPanel actionPanel = FormBuilder.create().columns("3dlu, pref, 3dlu, pref, 7dlu, pref:grow, 3dlu")
+                .rows("2dlu, p, 3dlu, p, 2dlu")
+                .add(monitor).xy(2, 2).add(clear).xy(4, 2).add(status).xy(6, 2)
+                .add(remediationAction).xy(2, 4).add(remediate).xy(4, 4).add(remediationStatus).xy(6, 4)
+                .build();
+        JideSplitPane splitPane = new JideSplitPane(JideSplitPane.VERTICAL_SPLIT);
+        splitPane.add(new JideScrollPane(summaryTable), 0);
+        splitPane.add(new JideScrollPane(failuresTable), 1);
+        splitPane.setProportionalLayout(true);
+        failuresUI = new JPanel(new BorderLayout());
+        failuresUI.add(actionPanel, BorderLayout.NORTH);
+        failuresUI.add(splitPane, BorderLayout.CENTER);
+        scanner.start();
+        logger.debug("Set up {}", this);
+    }
+
+    private void refreshFailures() {
+        if (scanner == null)
+            return;
+        try {
+            int selectedRow = summaryTable.getSelectedRow();
+            Object selectedEntityType = selectedRow == -1 ? null : summaryTableModel.getValueAt(selectedRow, 0);
+            Object selectedOperation = selectedRow == -1 ? null : summaryTableModel.getValueAt(selectedRow, 1);
+            Details summary = scanner.getSummary();
+            summaryTableModel.setDetails(summary);
+            for (int rowCounter = 0; selectedEntityType != null && rowCounter < summary.size(); rowCounter++) {
+                if (selectedEntityType.equals(summary.getValueAt(rowCounter, 0)) && selectedOperation.equals(summary.getValueAt(rowCounter, 1))) {
+                    summaryTable.getSelectionModel().setSelectionInterval(rowCounter, rowCounter);
+                    break;
+                }
+            }
+            refreshSelectedFailures();
+            status.setText(scanner.getFailureCount() + " failures as of " + scanner.getWatermark()
+                    + (scanner.isRunning() ? " (every " + scanner.getScanInterval() + " ms)" : ""));
+        } catch (Exception exception) {
+            displayMessage("Failed to load orchestration failures", "Could not display orchestration failures", exception);
+        }
+    }
+
+    // Failures displayed in the failures table (i.e. of selected summary row or all tracked failures) that the action applies to
+    private List<Long> getRemediationProcessIDs(OrchRemediationJob.Action action) {
+        List<Long> processIDs = new ArrayList<>();
+        int statusIndex = failuresTableModel.findColumn("Status");
+        for (int rowCounter = 0; rowCounter < failuresTableModel.getRowCount(); rowCounter++) {
+            Object status = statusIndex == -1 ? null : failuresTableModel.getValueAt(rowCounter, statusIndex);
+            if (action.isApplicable(status == null ? null : String.valueOf(status)))
+                processIDs.add((Long) failuresTableModel.getValueAt(rowCounter, 0));
+        }
+        return processIDs;
+    }
+
+    private String getRemediationScope() {
+        int selectedRow = summaryTable.getSelectedRow();
+        if (selectedRow == -1)
+            return "all tracked failures";
+        return "failures of " + summaryTableModel.getValueAt(selectedRow, 0) + " " + summaryTableModel.getValueAt(selectedRow, 1);
+    }
+
+    private void startRemediation(OrchRemediationJob.Action action, List<Long> processIDs, File journalFile) {
+        try {
+            final OrchRemediationJob job = new OrchRemediationJob(orchestrationManager, action, processIDs, journalFile, getConfiguration());
+            job.addListener(new OrchRemediationJob.ProgressListener() {
+                @Override
+                public void progress(OrchRemediationJob job, long processID, Exception failure) {
+                    updateRemediationStatus(job);
+                }
+            });
+            remediationJob = job;
+            remediate.setText("Cancel Remediation");
+            updateRemediationStatus(job);
+            Utils.executeAsyncOperation("Orchestration Remediation", new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        job.run();
+                    } catch (Exception exception) {
+                        displayMessage("Orchestration remediation failed", "Failed to run " + job.getAction() + " on orchestration failures", exception);
+                    } finally {
+                        remediationJob = null;
+                        SwingUtilities.invokeLater(new Runnable() {
+                            @Override
+                            public void run() {
+                                remediate.setText("Remediate");
+                            }
+                        });
+                        updateRemediationStatus(job);
+                    }
+                }
+            });
+        } catch (Exception exception) {
+            remediationJob = null;
+            displayMessage("Orchestration remediation failed", "Could not start " + action + " on " + processIDs.size() + " orchestration failures", exception);
+        }
+    }
+
+    private void updateRemediationStatus(final OrchRemediationJob job) {
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                remediationStatus.setText(job.getAction() + ": " + (job.getCompleted() + job.getFailed() + job.getSkipped()) + "/" + job.getTotal()
+                        + " processed, " + job.getFailed() + " failed, " + job.getSkipped() + " already remediated"
+                        + (job.isCancelled() ? " (cancelled)" : ""));
+            }
+        });
+    }
+
+    private void refreshSelectedFailures() {
+        int selectedRow = summaryTable.getSelectedRow();
+        if (selectedRow == -1) {
+            failuresTableModel.setDetails(scanner.getFailures(null, null));
+        } else {
+            failuresTableModel.setDetails(scanner.getFailures((String) summaryTableModel.getValueAt(selectedRow, 0),
+                    (String) summaryTableModel.getValueAt(selectedRow, 1)));
+        }
+    }
+
+    @Override
+    public JPanel getDisplayComponent() {
+        return failuresUI;
+    }
+
+    @Override
+    public void destroyDisplayComponent() {
+        OrchRemediationJob currentRemediationJob = remediationJob;
+        if (currentRemediationJob != null)
+            currentRemediationJob.cancel();
+        if (scanner != null) {
+            logger.debug("Stopping orchestration failure scanner {}", scanner);
+            scanner.stop();
+            scanner = null;
+        }
+        logger.debug("Destroyed {}", this);
+    }
+
+}
@@ -19,9 +19,13 @@ package com.jhash.oimadmin.ui.oim.perf;
 import com.jgoodies.jsdl.common.builder.FormBuilder;
 import com.jgoodies.jsdl.component.JGComponentFactory;
 import com.jhash.oimadmin.Utils;
+import com.jhash.oimadmin.LatencyHistogram;
 import com.jhash.oimadmin.oim.perf.PerfConfiguration;
 import com.jhash.oimadmin.oim.perf.PerfManager;
 import com.jhash.oimadmin.oim.perf.PerformanceData;
+import com.jhash.oimadmin.oim.perf.PerformanceExporter;
+import com.jhash.oimadmin.oim.perf.PerformanceSampler;
+import com.jhash.oimadmin.oim.perf.PerformanceTimeSeries;
 import com.jhash.oimadmin.ui.AbstractUIComponent;
 import com.jhash.oimadmin.ui.component.ParentComponent;
 import org.slf4j.Logger;
@@ -33,11 +37,10 @@ import javax.swing.event.ListSelectionListener;
 import javax.swing.table.DefaultTableModel;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 public class OIMPerformanceDetails extends AbstractUIComponent<JPanel, OIMPerformanceDetails> {
 
@@ -50,12 +53,18 @@ public class OIMPerformanceDetails extends AbstractUIComponent<JPanel, OIMPerfor
     private JLabel maximum = JGComponentFactory.getCurrent().createLabel();
     private JLabel average = JGComponentFactory.getCurrent().createLabel();
     private JLabel median = JGComponentFactory.getCurrent().createLabel();
+    private JLabel percentile95 = JGComponentFactory.getCurrent().createLabel();
+    private JLabel percentile99 = JGComponentFactory.getCurrent().createLabel();
     private JLabel transactionCount = JGComponentFactory.getCurrent().createLabel();
     private JLabel totalTime = JGComponentFactory.getCurrent().createLabel();
     private JButton startTracking = JGComponentFactory.getCurrent().createButton("Start");
     private JButton exportData = JGComponentFactory.getCurrent().createButton("Export");
+    private JButton monitor = JGComponentFactory.getCurrent().createButton("Monitor");
+    private JButton clusterSnapshot = JGComponentFactory.getCurrent().createButton("Cluster Snapshot");
     private JPanel performanceUI;
     private boolean isRecording = false;
+    private PerformanceSampler sampler;
+    private volatile PerformanceExporter exporter;
 
     public OIMPerformanceDetails(String serverName, List<PerfConfiguration> performanceMetrics, PerfManager performanceManager, String name, ParentComponent parentComponent) {
         super(name, parentComponent);
@@ -92,10 +101,14 @@ public class OIMPerformanceDetails extends AbstractUIComponent<JPanel, OIMPerfor
                         public void run() {
                             try {
                                 int lastColumnAdded = tableModel.getColumnCount() - 1;
+                                Map<PerfConfiguration, PerformanceData.Snapshot> endSnapshots = performanceManager.getSnapshotEngine().capture(serverName, performanceDetails);
                                 for (int rowCounter = 0; rowCounter < performanceDetails.size(); rowCounter++) {
                                     PerformanceData value = (PerformanceData) tableModel.getValueAt(rowCounter, lastColumnAdded);
                                     if (value != null) {
-                                        value.endSnapshot = performanceManager.capturePerformanceData(serverName, performanceDetails.get(rowCounter));
+                                        value.endSnapshot = endSnapshots.get(performanceDetails.get(rowCounter));
+                                        PerformanceExporter currentExporter = exporter;
+                                        if (currentExporter != null)
+                                            currentExporter.export(serverName, getName(), performanceDetails.get(rowCounter), value);
                                     }
                                 }
                                 String[] columnNames = new String[lastColumnAdded + 1];
@@ -110,6 +123,8 @@ public class OIMPerformanceDetails extends AbstractUIComponent<JPanel, OIMPerfor
                             isRecording = false;
                             startTracking.setText("Start");
                             startTracking.setEnabled(true);
+                            monitor.setEnabled(true);
+                            clusterSnapshot.setEnabled(true);
                         }
                     });
                 } else {
@@ -118,12 +133,15 @@ public class OIMPerformanceDetails extends AbstractUIComponent<JPanel, OIMPerfor
                         public void run() {
                             try {
                                 PerformanceData[] startingPerformanceDetails = new PerformanceData[performanceDetails.size()];
+                                Map<PerfConfiguration, PerformanceData.Snapshot> startSnapshots = performanceManager.getSnapshotEngine().capture(serverName, performanceDetails);
                                 for (int rowCounter = 0; rowCounter < startingPerformanceDetails.length; rowCounter++) {
                                     startingPerformanceDetails[rowCounter] = new PerformanceData();
-                                    startingPerformanceDetails[rowCounter].startSnapshot = performanceManager.capturePerformanceData(serverName, performanceDetails.get(rowCounter));
+                                    startingPerformanceDetails[rowCounter].startSnapshot = startSnapshots.get(performanceDetails.get(rowCounter));
                                 }
                                 tableModel.addColumn("Recording", startingPerformanceDetails);
                                 startTracking.setText("Stop");
+                                monitor.setEnabled(false);
+                                clusterSnapshot.setEnabled(false);
                                 isRecording = true;
                             } catch (Exception exception) {
                                 displayMessage("Loading performance detail failed", "Could not take a starting snapshot of values", exception);
@@ -136,6 +154,92 @@ public class OIMPerformanceDetails extends AbstractUIComponent<JPanel, OIMPerfor
                 }
             }
         });
+        monitor.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (sampler != null && sampler.isRunning()) {
+                    sampler.stop();
+                    int lastColumnAdded = tableModel.getColumnCount() - 1;
+                    String[] columnNames = new String[lastColumnAdded + 1];
+                    for (int columnCounter = 0; columnCounter < columnNames.length; columnCounter++) {
+                        columnNames[columnCounter] = tableModel.getColumnName(columnCounter);
+                    }
+                    columnNames[lastColumnAdded] = "Monitored till " + new Date();
+                    tableModel.setColumnIdentifiers(columnNames);
+                    monitor.setText("Monitor");
+                    startTracking.setEnabled(true);
+                    clusterSnapshot.setEnabled(true);
+                } else {
+                    try {
+                        sampler = new PerformanceSampler(performanceManager, serverName, performanceDetails, getConfiguration());
+                        PerformanceTimeSeries[] rollingPerformanceDetails = new PerformanceTimeSeries[performanceDetails.size()];
+                        for (int rowCounter = 0; rowCounter < rollingPerformanceDetails.length; rowCounter++) {
+                            rollingPerformanceDetails[rowCounter] = sampler.getTimeSeries(performanceDetails.get(rowCounter));
+                        }
+                        tableModel.addColumn("Monitoring (every " + sampler.getSampleInterval() + " ms)", rollingPerformanceDetails);
+                        final PerformanceSampler currentSampler = sampler;
+                        sampler.addListener(new PerformanceSampler.SampleListener() {
+                            @Override
+                            public void sampled(Map<PerfConfiguration, PerformanceData.Snapshot> snapshots, Map<PerfConfiguration, PerformanceTimeSeries.Interval> intervals) {
+                                PerformanceExporter currentExporter = exporter;
+                                if (currentExporter != null) {
+                                    for (Map.Entry<PerfConfiguration, PerformanceTimeSeries.Interval> interval : intervals.entrySet()) {
+                                        currentExporter.export(serverName, getName(), interval.getKey(), interval.getValue(),
+                                                currentSampler.getTimeSeries(interval.getKey()).getLatencyHistogram());
+                                    }
+                                }
+                                SwingUtilities.invokeLater(new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        tableModel.fireTableDataChanged();
+                                    }
+                                });
+                            }
+                        });
+                        sampler.start();
+                        monitor.setText("Stop Monitoring");
+                        startTracking.setEnabled(false);
+                        clusterSnapshot.setEnabled(false);
+                    } catch (Exception exception) {
+                        displayMessage("Monitoring performance failed", "Could not start monitoring of performance", exception);
+                    }
+                }
+            }
+        });
+        clusterSnapshot.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                clusterSnapshot.setEnabled(false);
+                startTracking.setEnabled(false);
+                monitor.setEnabled(false);
+                Utils.executeAsyncOperation("Loading Cluster Performance Details", new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            // All the servers of the cluster are captured together and each server's snapshot is added as a column
+                            Map<String, Map<PerfConfiguration, PerformanceData.Snapshot>> clusterSnapshots = performanceManager.getSnapshotEngine().captureCluster(performanceDetails);
+                            String captureTime = new Date().toString();
+                            for (Map.Entry<String, Map<PerfConfiguration, PerformanceData.Snapshot>> serverSnapshots : clusterSnapshots.entrySet()) {
+                                ServerPerformanceData[] serverPerformanceDetails = new ServerPerformanceData[performanceDetails.size()];
+                                for (int rowCounter = 0; rowCounter < serverPerformanceDetails.length; rowCounter++) {
+                                    serverPerformanceDetails[rowCounter] = new ServerPerformanceData(serverSnapshots.getKey());
+                                    serverPerformanceDetails[rowCounter].endSnapshot = serverSnapshots.getValue().get(performanceDetails.get(rowCounter));
+                                    PerformanceExporter currentExporter = exporter;
+                                    if (currentExporter != null)
+                                        currentExporter.export(serverSnapshots.getKey(), getName(), performanceDetails.get(rowCounter), serverPerformanceDetails[rowCounter]);
+                                }
+                                tableModel.addColumn(serverSnapshots.getKey() + " (" + captureTime + ")", serverPerformanceDetails);
+                            }
+                        } catch (Exception exception) {
+                            displayMessage("Loading performance detail failed", "Failed to take performance snapshot of all the servers", exception);
+                        }
+                        clusterSnapshot.setEnabled(true);
+                        startTracking.setEnabled(true);
+                        monitor.setEnabled(true);
+                    }
+                });
+            }
+        });
         performanceTable.getSelectionModel().addListSelectionListener(new ListSelectionListener() {
             @Override
             public void valueChanged(ListSelectionEvent e) {
@@ -151,7 +255,33 @@ public class OIMPerformanceDetails extends AbstractUIComponent<JPanel, OIMPerfor
                     logger.warn("Incorrect selection has been made or selection made has become invalid. Selected Row={}, Column={}", selectedRow, selectedColumn);
                     return;
                 }
-                PerformanceData detail = (PerformanceData) tableModel.getValueAt(selectedRow, selectedColumn);
+                Object selectedValue = tableModel.getValueAt(selectedRow, selectedColumn);
+                if (selectedValue instanceof PerformanceTimeSeries) {
+                    List<PerformanceTimeSeries.Interval> intervals = ((PerformanceTimeSeries) selectedValue).getIntervals();
+                    PerformanceTimeSeries.Interval window = ((PerformanceTimeSeries) selectedValue).getWindow();
+                    long minimumValue = Long.MAX_VALUE, maximumValue = 0;
+                    for (PerformanceTimeSeries.Interval interval : intervals) {
+                        if (interval.completedTransactions > 0) {
+                            minimumValue = Math.min(minimumValue, interval.getAverageTime());
+                            maximumValue = Math.max(maximumValue, interval.getAverageTime());
+                        }
+                    }
+                    minimum.setText(minimumValue == Long.MAX_VALUE ? "" : "" + minimumValue);
+                    maximum.setText(minimumValue == Long.MAX_VALUE ? "" : "" + maximumValue);
+                    average.setText(window == null ? "" : "" + window.getAverageTime());
+                    transactionCount.setText(window == null ? "" : window.completedTransactions + " (" + String.format("%.2f", window.getThroughput()) + "/s)");
+                    totalTime.setText(window == null ? "" : "" + window.transactionTime);
+                    LatencyHistogram latencyHistogram = ((PerformanceTimeSeries) selectedValue).getLatencyHistogram();
+                    median.setText(latencyHistogram.getTotalCount() == 0 ? "" : "" + latencyHistogram.getPercentile(50));
+                    percentile95.setText(latencyHistogram.getTotalCount() == 0 ? "" : "" + latencyHistogram.getPercentile(95));
+                    percentile99.setText(latencyHistogram.getTotalCount() == 0 ? "" : "" + latencyHistogram.getPercentile(99));
+                    return;
+                }
+                if (!(selectedValue instanceof PerformanceData)) {
+                    logger.debug("Ignoring selection of {} since it does not contain any performance detail", selectedValue);
+                    return;
+                }
+                PerformanceData detail = (PerformanceData) selectedValue;
                 String endMinimumValue = "", endMaximumValue = "", endAvgValue = "", endCompletedValue = "", endTotal_timeValue = "";
                 String startMinimumValue = "", startMaximumValue = "", startAvgValue = "", startCompletedValue = "", startTotal_timeValue = "";
                 if (detail.endSnapshot != null) {
@@ -168,11 +298,16 @@ public class OIMPerformanceDetails extends AbstractUIComponent<JPanel, OIMPerfor
                     startCompletedValue = detail.startSnapshot.get(PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS);
                     startTotal_timeValue = detail.startSnapshot.get(PerfConfiguration.DATA_POINT.TOTAL_TRANSACTION_TIME);
                 }
-                minimum.setText(endMinimumValue + ((!endMinimumValue.equals(startMinimumValue)) ? (" (" + startMinimumValue + ")") : ""));
-                maximum.setText(endMaximumValue + ((!endMaximumValue.equals(startMaximumValue)) ? (" (" + startMaximumValue + ")") : ""));
-                average.setText(endAvgValue + ((!endAvgValue.equals(startAvgValue)) ? (" (" + startAvgValue + ")") : ""));
-                transactionCount.setText(endCompletedValue + ((!endCompletedValue.equals(startCompletedValue)) ? (" (" + startCompletedValue + ")") : ""));
-                totalTime.setText(endTotal_timeValue + ((!endTotal_timeValue.equals(startTotal_timeValue)) ? (" (" + startTotal_timeValue + ")") : ""));
+                // Cluster snapshots do not have a starting snapshot to compare with
+                boolean compare = detail.startSnapshot != null;
+                minimum.setText(endMinimumValue + ((compare && !endMinimumValue.equals(startMinimumValue)) ? (" (" + startMinimumValue + ")") : ""));
+                maximum.setText(endMaximumValue + ((compare && !endMaximumValue.equals(startMaximumValue)) ? (" (" + startMaximumValue + ")") : ""));
+                average.setText(endAvgValue + ((compare && !endAvgValue.equals(startAvgValue)) ? (" (" + startAvgValue + ")") : ""));
+                transactionCount.setText(endCompletedValue + ((compare && !endCompletedValue.equals(startCompletedValue)) ? (" (" + startCompletedValue + ")") : ""));
+                totalTime.setText(endTotal_timeValue + ((compare && !endTotal_timeValue.equals(startTotal_timeValue)) ? (" (" + startTotal_timeValue + ")") : ""));
+                median.setText("");
+                percentile95.setText("");
+                percentile99.setText("");
             }
         });
         final JFileChooser fileChooser = new JFileChooser();
@@ -180,60 +315,48 @@ public class OIMPerformanceDetails extends AbstractUIComponent<JPanel, OIMPerfor
         exportData.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
+                if (exporter != null) {
+                    exportData.setEnabled(false);
+                    Utils.executeAsyncOperation("Stopping Performance Export", new Runnable() {
+                        @Override
+                        public void run() {
+                            closeExporter();
+                            exportData.setText("Export");
+                            exportData.setEnabled(true);
+                        }
+                    });
+                    return;
+                }
                 int result = fileChooser.showSaveDialog(fileChooser);
                 if (result == JFileChooser.APPROVE_OPTION) {
-                    File saveFile = fileChooser.getSelectedFile();
-                    try (BufferedWriter fileWriter = new BufferedWriter(new FileWriter(saveFile, false))) {
-                        fileWriter.append("Items,");
-                        int numberOfColumns = tableModel.getColumnCount();
-                        for (int columnCounter = 1; columnCounter < numberOfColumns; columnCounter++) {
-                            String columnName = tableModel.getColumnName(columnCounter);
-                            fileWriter.append(columnName).append("-starting_minimum,");
-                            fileWriter.append(columnName).append("-starting_maximum,");
-                            fileWriter.append(columnName).append("-starting_average,");
-                            fileWriter.append(columnName).append("-starting_transactions,");
-                            fileWriter.append(columnName).append("-starting_total_time,");
-                            fileWriter.append(columnName).append("-end_minimum,");
-                            fileWriter.append(columnName).append("-end_maximum,");
-                            fileWriter.append(columnName).append("-end_average,");
-                            fileWriter.append(columnName).append("-end_transactions,");
-                            fileWriter.append(columnName).append("-end_total_time,");
-                        }
-                        fileWriter.newLine();
-                        for (int counter = 0; counter < tableModel.getRowCount(); counter++) {
-                            for (int columnCounter = 0; columnCounter < numberOfColumns; columnCounter++) {
-                                Object cellData = tableModel.getValueAt(counter, columnCounter);
-                                if (columnCounter == 0) {
-                                    fileWriter.append(cellData.toString()).append(",");
-                                } else if (cellData instanceof PerformanceData) {
-                                    PerformanceData detail = (PerformanceData) cellData;
-                                    if (detail.startSnapshot != null) {
-                                        fileWriter.append(detail.startSnapshot.get(PerfConfiguration.DATA_POINT.MIN)).append(",");
-                                        fileWriter.append(detail.startSnapshot.get(PerfConfiguration.DATA_POINT.MAX)).append(",");
-                                        fileWriter.append(detail.startSnapshot.get(PerfConfiguration.DATA_POINT.AVG)).append(",");
-                                        fileWriter.append(detail.startSnapshot.get(PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS)).append(",");
-                                        fileWriter.append(detail.startSnapshot.get(PerfConfiguration.DATA_POINT.TOTAL_TRANSACTION_TIME)).append(",");
-                                    } else {
-                                        fileWriter.append(",,,,,");
-                                    }
-                                    if (detail.endSnapshot != null) {
-                                        fileWriter.append(detail.endSnapshot.get(PerfConfiguration.DATA_POINT.MIN)).append(",");
-                                        fileWriter.append(detail.endSnapshot.get(PerfConfiguration.DATA_POINT.MAX)).append(",");
-                                        fileWriter.append(detail.endSnapshot.get(PerfConfiguration.DATA_POINT.AVG)).append(",");
-                                        fileWriter.append(detail.endSnapshot.get(PerfConfiguration.DATA_POINT.COMPLETED_TRANSACTIONS)).append(",");
-                                        fileWriter.append(detail.endSnapshot.get(PerfConfiguration.DATA_POINT.TOTAL_TRANSACTION_TIME)).append(",");
-                                    } else {
-                                        fileWriter.append(",,,,,");
+                    final File saveFile = fileChooser.getSelectedFile();
+                    exportData.setEnabled(false);
+                    Utils.executeAsyncOperation("Exporting Performance Details", new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                PerformanceExporter newExporter = new PerformanceExporter(saveFile, PerformanceExporter.getFormat(saveFile));
+                                // Whatever has been captured so far is exported first, anything captured later is streamed as it arrives.
+                                for (int columnCounter = 1; columnCounter < tableModel.getColumnCount(); columnCounter++) {
+                                    for (int rowCounter = 0; rowCounter < performanceDetails.size(); rowCounter++) {
+                                        Object cellData = tableModel.getValueAt(rowCounter, columnCounter);
+                                        if (cellData instanceof ServerPerformanceData && ((PerformanceData) cellData).endSnapshot != null) {
+                                            newExporter.export(((ServerPerformanceData) cellData).server, getName(), performanceDetails.get(rowCounter), (PerformanceData) cellData);
+                                        } else if (cellData instanceof PerformanceData && ((PerformanceData) cellData).endSnapshot != null) {
+                                            newExporter.export(serverName, getName(), performanceDetails.get(rowCounter), (PerformanceData) cellData);
+                                        } else if (cellData instanceof PerformanceTimeSeries) {
+                                            newExporter.export(serverName, getName(), performanceDetails.get(rowCounter), (PerformanceTimeSeries) cellData);
+                                        }
                                     }
-                                } else {
-                                    logger.debug("Skipping line since invalid data detected {}", cellData);
                                 }
+                                exporter = newExporter;
+                                exportData.setText("Stop Export");
+                            } catch (Exception exception) {
+                                displayMessage("Performance Data save failed", "Failed to save the Performance details to file " + saveFile, exception);
                             }
-                            fileWriter.newLine();
+                            exportData.setEnabled(true);
                         }
-                    } catch (Exception exception) {
-                        displayMessage("Performance Data save failed", "Failed to save the Performance details to file " + saveFile, exception);
-                    }
+                    });
                 }
             }
         });
@@ -242,12 +365,13 @@ public class OIMPerformanceDetails extends AbstractUIComponent<JPanel, OIMPerfor
 
     private JPanel buildPanel() {
         return FormBuilder.create().columns("3dlu, right:pref, 3dlu, pref:grow, 7dlu, right:pref, 3dlu, pref:grow, 3dlu")
-                .rows("3dlu, p, 3dlu, p, 7dlu, p, 3dlu, p, 3dlu, p")
-                .add(startTracking).xy(4, 2).add(exportData).xy(8, 2)
+                .rows("3dlu, p, 3dlu, p, 7dlu, p, 3dlu, p, 3dlu, p, 3dlu, p")
+                .add(clusterSnapshot).xy(2, 2).add(startTracking).xy(4, 2).add(exportData).xy(8, 2).add(monitor).xy(6, 2)
                 .add(performanceTable).xyw(2, 4, 7)
                 .addLabel("Minimum (ms)").xy(2, 6).add(minimum).xy(4, 6).addLabel("Maximum (ms)").xy(6, 6).add(maximum).xy(8, 6)
                 .addLabel("Average (ms)").xy(2, 8).add(average).xy(4, 8).addLabel("Count").xy(6, 8).add(transactionCount).xy(8, 8)
-                .addLabel("Median").xy(2, 10).add(median).xy(4, 10).addLabel("Total Time").xy(6, 10).add(totalTime).xy(8, 10)
+                .addLabel("Median (ms)").xy(2, 10).add(median).xy(4, 10).addLabel("Total Time").xy(6, 10).add(totalTime).xy(8, 10)
+                .addLabel("95th Percentile (ms)").xy(2, 12).add(percentile95).xy(4, 12).addLabel("99th Percentile (ms)").xy(6, 12).add(percentile99).xy(8, 12)
                 .build();
     }
 
@@ -258,7 +382,34 @@ public class OIMPerformanceDetails extends AbstractUIComponent<JPanel, OIMPerfor
 
     @Override
     public void destroyDisplayComponent() {
-        logger.debug("Nothing to do while destroying component.");
+        if (sampler != null) {
+            logger.debug("Stopping performance sampler {}", sampler);
+            sampler.stop();
+            sampler = null;
+        }
+        closeExporter();
+    }
+
+    // Snapshot taken as part of a cluster snapshot, which may be of a server other than the one being monitored
+    private static class ServerPerformanceData extends PerformanceData {
+        private final String server;
+
+        ServerPerformanceData(String server) {
+            this.server = server;
+        }
+    }
+
+    private void closeExporter() {
+        PerformanceExporter currentExporter = exporter;
+        exporter = null;
+        if (currentExporter != null) {
+            logger.debug("Closing performance exporter {}", currentExporter);
+            try {
+                currentExporter.close();
+            } catch (Exception exception) {
+                displayMessage("Performance Data save failed", "Failed to complete export of performance details", exception);
+            }
+        }
     }
 
 }
@@ -38,6 +38,7 @@ public class OIMPerformanceTreeNode extends AbstractUIComponentTreeNode<OIMPerfo
 
 
     public static MenuHandler.MENU NEW_PERFORMANCE_DETAIL = new MenuHandler.MENU("Performance Detail", MenuHandler.MENU.NEW, "New Performance Details");
+    public static final MenuHandler.MENU REDISCOVER_PERFORMANCE = new MenuHandler.MENU("Rediscover Performance Beans", MenuHandler.MENU.RUN);
     private static final Logger logger = LoggerFactory.getLogger(OIMPerformanceTreeNode.class);
     private final PerfManager performanceManager;
     private Map<String, List<PerfConfiguration>> performanceItemDetails = new HashMap<>();
@@ -89,6 +90,21 @@ public class OIMPerformanceTreeNode extends AbstractUIComponentTreeNode<OIMPerfo
                 });
             }
         });
+        registerMenu(REDISCOVER_PERFORMANCE, new MenuHandler.ActionHandler() {
+            @Override
+            public void invoke(MenuHandler.MENU menuItem, MenuHandler.Context context) {
+                Utils.executeAsyncOperation("Rediscover Performance Beans", new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            performanceManager.rediscoverPerformanceConfiguration(oimServerName);
+                        } catch (Exception exception) {
+                            displayMessage("Performance bean discovery failed", "Failed to discover performance beans on server " + oimServerName, exception);
+                        }
+                    }
+                });
+            }
+        });
         performanceItemDetails = performanceManager.getPerformanceConfiguration(getConfiguration());
         for (Map.Entry<String, List<PerfConfiguration>> performanceItem : performanceItemDetails.entrySet()) {
             new DisplayComponentNode<>(performanceItem.getKey(),
@@ -107,6 +123,7 @@ public class OIMPerformanceTreeNode extends AbstractUIComponentTreeNode<OIMPerfo
         if (performanceItemDetails != null) {
             performanceItemDetails.clear();
         }
+        performanceManager.destroy();
         logger.debug("Destroyed {}", this);
     }
 }
@@ -18,9 +18,11 @@ package com.jhash.oimadmin.ui.utils;
 
 import com.jgoodies.jsdl.component.JGComponentFactory;
 import com.jhash.oimadmin.Utils;
+import com.jhash.oimadmin.oim.Details;
 import com.jhash.oimadmin.ui.AbstractUIComponent;
 
 import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
 import javax.swing.text.JTextComponent;
 import java.io.File;
 import java.util.Arrays;
@@ -164,4 +166,43 @@ public class UIUtils {
 
     }
 
+    // Read-only table model that uses the result directly instead of copying it.
+    public static class DetailsTableModel extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+        private Details details;
+
+        public DetailsTableModel(Details details) {
+            this.details = details;
+        }
+
+        public Details getDetails() {
+            return details;
+        }
+
+        public void setDetails(Details details) {
+            this.details = details;
+            fireTableStructureChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return details == null ? 0 : details.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return details == null ? 0 : details.getColumns().length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return details.getColumns()[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            return details.getValueAt(rowIndex, columnIndex);
+        }
+    }
+
 }
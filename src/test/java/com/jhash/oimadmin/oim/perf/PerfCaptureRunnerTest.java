@@ -0,0 +1,201 @@
+/*
+ * Copyright 2015 Shekhar Jha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jhash.oimadmin.oim.perf;
+
+import com.jhash.oimadmin.Config;
+import com.jhash.oimadmin.Connection;
+import com.jhash.oimadmin.oim.JMXConnection;
+
+import javax.management.*;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+// Runs the performance capture against an in-process MBean server that only exposes a stub DMS bean, i.e. without any OIM
+// beans, using a local JMX connector server.
+public class PerfCaptureRunnerTest {
+
+    private static final String SERVER = "oim_server1";
+
+    public static void main(String[] args) throws Exception {
+        Path workHome = Files.createTempDirectory("perfcapture");
+        MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+        final StubDMSBean dmsBean = new StubDMSBean("createUser");
+        mBeanServer.registerMBean(dmsBean, new ObjectName("oracle.dms:Location=" + SERVER + ",name=/oim/UserManager,type=OIM_API"));
+        JMXConnectorServer connectorServer = JMXConnectorServerFactory.newJMXConnectorServer(new JMXServiceURL("service:jmx:rmi://"), null, mBeanServer);
+        connectorServer.start();
+        try {
+            Config config = createConfig(workHome, connectorServer.getAddress().toString());
+            File output = workHome.resolve("capture.csv").toFile();
+            Map<String, String> arguments = PerfCaptureRunner.parseArguments(new String[]{PerfCaptureRunner.ARG_CONNECTION, "test",
+                    PerfCaptureRunner.ARG_SERVER, SERVER, PerfCaptureRunner.ARG_MODE, PerfCaptureRunner.MODE_SNAPSHOT,
+                    PerfCaptureRunner.ARG_DURATION, "1", PerfCaptureRunner.ARG_OUTPUT, output.getAbsolutePath()});
+            dmsBean.recordCalls(3, 10);
+            // Calls made between the start and end snapshots
+            dmsBean.recordCallsAfterNextRead(5, 20);
+            new PerfCaptureRunner(config.getConnectionDetails("test"), arguments).run();
+            List<String> lines = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+            check(lines.size() == 2, "Expected header and one record, found " + lines);
+            check(lines.get(1).startsWith(PerformanceExporter.TYPE_SNAPSHOT + "," + SERVER + ",User,Create User,"), "Unexpected record " + lines.get(1));
+            check(lines.get(1).contains(",5,100,"), "Expected 5 transactions taking 100 ms in record " + lines.get(1));
+            System.out.println("Captured " + lines);
+        } finally {
+            connectorServer.stop();
+            delete(workHome);
+        }
+        System.exit(0);
+    }
+
+    private static Config createConfig(Path workHome, String jmxURL) throws IOException {
+        Path configFile = workHome.resolve(Config.VAL_WORK_AREA_BASE + Config.VAL_WORK_AREA_CONF).resolve(Config.VAL_CONFIG_PROP_FILE_NAME);
+        Files.createDirectories(configFile.getParent());
+        Properties properties = new Properties();
+        properties.setProperty(Config.ATTR_CONN_NAME_PREFIX + "0." + Connection.ATTR_CONN_NAME, "test");
+        properties.setProperty(Config.ATTR_CONN_NAME_PREFIX + "0." + JMXConnection.ATTR_JMX_URL, jmxURL);
+        properties.setProperty(Config.ATTR_CONN_NAME_PREFIX + "0." + JMXConnection.ATTR_JMX_RECONNECT, "false");
+        properties.setProperty(PerfManager.ATTR_PERFORMANCE_CONFIG_PREFIX + PerfManager.ATTR_PERFORMANCE_CONFIG_OPTIONS, "user");
+        properties.setProperty(PerfManager.ATTR_PERFORMANCE_CONFIG_PREFIX + "user" + PerfManager.ATTR_PERFORMANCE_CONFIG_NAME, "User");
+        properties.setProperty(PerfManager.ATTR_PERFORMANCE_CONFIG_PREFIX + "user.1" + PerfManager.ATTR_PERFORMANCE_CONFIG_TYPE, "api");
+        properties.setProperty(PerfManager.ATTR_PERFORMANCE_CONFIG_PREFIX + "user.1" + PerfManager.ATTR_PERFORMANCE_CONFIG_DISPLAY_NAME, "Create User");
+        properties.setProperty(PerfManager.ATTR_PERFORMANCE_CONFIG_PREFIX + "user.1" + PerfManager.ATTR_PERFORMANCE_CONFIG_NAME, "/oim/UserManager");
+        properties.setProperty(PerfManager.ATTR_PERFORMANCE_CONFIG_PREFIX + "user.1" + PerfManager.ATTR_PERFORMANCE_CONFIG_CALL, "createUser");
+        try (Writer writer = Files.newBufferedWriter(configFile, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+        System.setProperty(Config.ATTR_NAME_WORK_AREA, workHome.toString());
+        Config config = new Config();
+        config.load();
+        return config;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+
+    private static void delete(Path path) throws IOException {
+        Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path directory, IOException exception) throws IOException {
+                Files.delete(directory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    // Exposes the DMS attributes <call>_completed, _time, _avg, _minTime and _maxTime of a single call
+    public static class StubDMSBean implements DynamicMBean {
+
+        private final String call;
+        private long completed;
+        private long time;
+        private long minimumTime;
+        private long maximumTime;
+        private int pendingCount;
+        private long pendingCallTime;
+
+        public StubDMSBean(String call) {
+            this.call = call;
+        }
+
+        // Calls are recorded once the attributes have been read, i.e. after the snapshot that reads them
+        public synchronized void recordCallsAfterNextRead(int count, long callTime) {
+            pendingCount = count;
+            pendingCallTime = callTime;
+        }
+
+        public synchronized void recordCalls(int count, long callTime) {
+            completed += count;
+            time += count * callTime;
+            minimumTime = minimumTime == 0 ? callTime : Math.min(minimumTime, callTime);
+            maximumTime = Math.max(maximumTime, callTime);
+        }
+
+        @Override
+        public synchronized Object getAttribute(String attribute) throws AttributeNotFoundException {
+            switch (attribute.substring(attribute.lastIndexOf('_') + 1)) {
+                case "completed":
+                    return completed;
+                case "time":
+                    return time;
+                case "avg":
+                    return completed == 0 ? 0d : (double) time / completed;
+                case "minTime":
+                    return minimumTime;
+                case "maxTime":
+                    return maximumTime;
+                default:
+                    throw new AttributeNotFoundException(attribute);
+            }
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException(attribute.getName() + " is read only");
+        }
+
+        @Override
+        public synchronized AttributeList getAttributes(String[] attributes) {
+            AttributeList values = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    values.add(new Attribute(attribute, getAttribute(attribute)));
+                } catch (AttributeNotFoundException exception) {
+                    // Missing attributes are not returned
+                }
+            }
+            if (pendingCount > 0) {
+                recordCalls(pendingCount, pendingCallTime);
+                pendingCount = 0;
+            }
+            return values;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) throws MBeanException {
+            throw new MBeanException(new UnsupportedOperationException(actionName));
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (String suffix : new String[]{"completed", "time", "minTime", "maxTime"}) {
+                attributes.add(new MBeanAttributeInfo(call + "_" + suffix, Long.class.getName(), suffix, true, false, false));
+            }
+            attributes.add(new MBeanAttributeInfo(call + "_avg", Double.class.getName(), "avg", true, false, false));
+            return new MBeanInfo(StubDMSBean.class.getName(), "Stub DMS bean", attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+        }
+    }
+}